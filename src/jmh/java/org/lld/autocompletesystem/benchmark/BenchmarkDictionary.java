@@ -0,0 +1,53 @@
+package org.lld.autocompletesystem.benchmark;
+
+import org.lld.autocompletesystem.EntryType;
+import org.lld.autocompletesystem.WordEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic identifiers shared by the benchmarks, so runs are comparable
+ */
+final class BenchmarkDictionary {
+    static final String[] LANGUAGES = {"java", "python", "javascript"};
+
+    private static final String[] VERBS = {"get", "set", "is", "has", "create", "update", "delete", "find",
+            "load", "save", "parse", "build", "to", "on", "handle", "compute"};
+    private static final String[] NOUNS = {"User", "Order", "Payment", "Account", "Session", "Config",
+            "Index", "Token", "Value", "Buffer", "Request", "Response", "Event", "Cache", "Node", "Path"};
+
+    private BenchmarkDictionary() {
+    }
+
+    /**
+     * size identifiers spread over the three languages, with a few usage counts so
+     * frequency ranking has something to order by
+     */
+    static List<WordEntry> words(int size) {
+        Random random = new Random(42);
+        EntryType[] types = EntryType.values();
+        List<WordEntry> words = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String word = VERBS[random.nextInt(VERBS.length)] + NOUNS[random.nextInt(NOUNS.length)]
+                    + NOUNS[random.nextInt(NOUNS.length)] + Integer.toString(i, 36);
+            words.add(new WordEntry(word, types[random.nextInt(types.length)],
+                    LANGUAGES[i % LANGUAGES.length], random.nextInt(8) == 0 ? random.nextInt(50) : 0));
+        }
+        return words;
+    }
+
+    /**
+     * Prefixes of the given length cut from random dictionary words, so every lookup has matches
+     */
+    static String[] prefixes(List<WordEntry> words, int length, int count) {
+        Random random = new Random(7);
+        String[] prefixes = new String[count];
+        for (int i = 0; i < count; i++) {
+            String word = words.get(random.nextInt(words.size())).getWord();
+            prefixes[i] = word.substring(0, Math.min(length, word.length()));
+        }
+        return prefixes;
+    }
+}
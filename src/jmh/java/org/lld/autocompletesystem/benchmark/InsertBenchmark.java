@@ -0,0 +1,60 @@
+package org.lld.autocompletesystem.benchmark;
+
+import org.lld.autocompletesystem.AutoCompleteEngine;
+import org.lld.autocompletesystem.TrieNode;
+import org.lld.autocompletesystem.WordEntry;
+import org.lld.autocompletesystem.strategy.FrequencyStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a dictionary of the given size: one TrieNode.insert per word, and the
+ * parallel bulk loader. Each invocation builds a fresh trie; scores are per dictionary.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class InsertBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int dictionarySize;
+
+    private List<WordEntry> words;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        words = BenchmarkDictionary.words(dictionarySize);
+    }
+
+    @Benchmark
+    public TrieNode insert() {
+        TrieNode root = new TrieNode();
+        for (WordEntry entry : words) {
+            root.insert(entry.getWord(), entry.getEntryType(), entry.getLanguage());
+        }
+        return root;
+    }
+
+    @Benchmark
+    public AutoCompleteEngine bulkLoad() {
+        AutoCompleteEngine engine = new AutoCompleteEngine(new FrequencyStrategy());
+        engine.bulkLoad(words.stream());
+        return engine;
+    }
+}
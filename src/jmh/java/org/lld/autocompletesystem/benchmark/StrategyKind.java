@@ -0,0 +1,23 @@
+package org.lld.autocompletesystem.benchmark;
+
+import org.lld.autocompletesystem.strategy.FrequencyStrategy;
+import org.lld.autocompletesystem.strategy.PrecomputedScoreStrategy;
+import org.lld.autocompletesystem.strategy.RankingStrategy;
+import org.lld.autocompletesystem.strategy.RelevanceStrategy;
+
+/**
+ * Ranking strategies selectable through a JMH @Param
+ */
+public enum StrategyKind {
+    FREQUENCY,
+    RELEVANCE,
+    PRECOMPUTED;
+
+    RankingStrategy create() {
+        return switch (this) {
+            case FREQUENCY -> new FrequencyStrategy();
+            case RELEVANCE -> new RelevanceStrategy();
+            case PRECOMPUTED -> new PrecomputedScoreStrategy();
+        };
+    }
+}
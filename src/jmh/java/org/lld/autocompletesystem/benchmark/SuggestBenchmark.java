@@ -0,0 +1,115 @@
+package org.lld.autocompletesystem.benchmark;
+
+import org.lld.autocompletesystem.AutoCompleteEngine;
+import org.lld.autocompletesystem.TrieNode;
+import org.lld.autocompletesystem.WordEntry;
+import org.lld.autocompletesystem.strategy.RankingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot read path: collecting a prefix's candidates, ranking them, and the engine's suggest
+ * entry points, over dictionary size, prefix length, language filter and ranking strategy.
+ * Throughput gives ops/sec and SampleTime gives latency percentiles; add -prof gc for the
+ * allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class SuggestBenchmark {
+    private static final int PREFIX_COUNT = 1024; // Power of two, cycled with a mask
+    private static final int MAX_RESULTS = 10;
+
+    @Param({"10000", "100000", "1000000"})
+    private int dictionarySize;
+
+    @Param({"1", "3", "6"})
+    private int prefixLength;
+
+    // Empty means no language filter
+    @Param({"", "java"})
+    private String language;
+
+    @Param({"FREQUENCY", "RELEVANCE", "PRECOMPUTED"})
+    private StrategyKind strategy;
+
+    private TrieNode trie;
+    private AutoCompleteEngine engine;
+    private RankingStrategy rankingStrategy;
+    private String[] prefixes;
+    private List<List<WordEntry>> candidates; // Per prefix, for timing ranking on its own
+    private List<String> out;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<WordEntry> words = BenchmarkDictionary.words(dictionarySize);
+        rankingStrategy = strategy.create();
+
+        trie = new TrieNode();
+        for (WordEntry entry : words) {
+            trie.insert(entry.getWord(), entry.getEntryType(), entry.getLanguage());
+        }
+
+        engine = new AutoCompleteEngine(rankingStrategy);
+        engine.bulkLoad(words.stream());
+        engine.setLanguageContext(language.isEmpty() ? null : language);
+
+        prefixes = BenchmarkDictionary.prefixes(words, prefixLength, PREFIX_COUNT);
+        candidates = new ArrayList<>(PREFIX_COUNT);
+        for (String prefix : prefixes) {
+            candidates.add(trie.getSuggestions(prefix, language));
+        }
+        out = new ArrayList<>(MAX_RESULTS);
+    }
+
+    private int nextIndex() {
+        return next++ & (PREFIX_COUNT - 1);
+    }
+
+    @Benchmark
+    public List<WordEntry> getSuggestions() {
+        return trie.getSuggestions(prefixes[nextIndex()], language);
+    }
+
+    @Benchmark
+    public List<WordEntry> rank() {
+        int index = nextIndex();
+        return rankingStrategy.rank(candidates.get(index), prefixes[index]);
+    }
+
+    @Benchmark
+    public List<WordEntry> rankTopK() {
+        int index = nextIndex();
+        return rankingStrategy.rankTopK(candidates.get(index), prefixes[index], MAX_RESULTS);
+    }
+
+    @Benchmark
+    public List<String> suggest() {
+        return engine.suggest(prefixes[nextIndex()], MAX_RESULTS);
+    }
+
+    @Benchmark
+    public List<String> suggestInto() {
+        out.clear();
+        engine.suggestInto(prefixes[nextIndex()], MAX_RESULTS, out);
+        return out;
+    }
+}
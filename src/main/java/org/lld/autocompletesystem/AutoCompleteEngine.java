@@ -2,26 +2,96 @@ package org.lld.autocompletesystem;
 
 import org.lld.autocompletesystem.strategy.FrequencyStrategy;
 import org.lld.autocompletesystem.strategy.RankingStrategy;
+import org.lld.autocompletesystem.strategy.ScoringModel;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+/**
+ * Code autocomplete engine. An engine built with {@link TrieLayout#CONCURRENT} may be shared
+ * across threads: suggestions never block while words are added and usage is recorded.
+ * Engines using any other layout must be confined to one thread at a time.
+ */
 public class AutoCompleteEngine {
-    private final TrieNode root;
+    // Collectors hold reusable buffers, so each thread gets its own
+    private static final ThreadLocal<SuggestionCollector> COLLECTORS =
+            ThreadLocal.withInitial(SuggestionCollector::new);
+
+    private volatile TrieLayout layout;
+    private volatile WordIndex index;
     private final RankingStrategy rankingStrategy;
-    private final Map<String, String> contextHistory; // Track search patterns by language
-    private String currentLanguage; // Current context language
+    private final SearchHistory contextHistory; // Track search patterns by language
+    private volatile String currentLanguage; // Current context language
+    private final int topKCacheSize; // 0 disables the per-node top-K cache
+    // Bumped on every dictionary or usage change, so query cursors drop stale candidates; atomic
+    // because CONCURRENT engines are changed from many threads while cursors read it
+    private final AtomicInteger modCount = new AtomicInteger();
+    private volatile SuggestionCache suggestionCache; // null until enabled
+    private volatile InfixIndex infixIndex; // null until enabled
+    private volatile UsageJournal usageJournal; // null until opened
+    private long lastRescoreMillis = System.currentTimeMillis(); // Time of the last full rescore
 
     public AutoCompleteEngine() {
         this(new FrequencyStrategy());
     }
 
     public AutoCompleteEngine(RankingStrategy rankingStrategy) {
-        this.root = new TrieNode();
+        this(rankingStrategy, TrieLayout.HASH_MAP, 0);
+    }
+
+    public AutoCompleteEngine(RankingStrategy rankingStrategy, TrieLayout layout) {
+        this(rankingStrategy, layout, 0);
+    }
+
+    public AutoCompleteEngine(RankingStrategy rankingStrategy, int topKCacheSize) {
+        this(rankingStrategy, TrieLayout.HASH_MAP, topKCacheSize);
+    }
+
+    /**
+     * Create an engine with the given trie layout. A positive topKCacheSize keeps a ranked list
+     * of the best topKCacheSize words at every trie node, so suggest(prefix, k) with
+     * k <= topKCacheSize costs O(|prefix| + k); this needs the HASH_MAP layout.
+     */
+    public AutoCompleteEngine(RankingStrategy rankingStrategy, TrieLayout layout, int topKCacheSize) {
+        this(rankingStrategy, layout, createIndex(rankingStrategy, layout, topKCacheSize), topKCacheSize);
+    }
+
+    private AutoCompleteEngine(RankingStrategy rankingStrategy, TrieLayout layout,
+                               WordIndex index, int topKCacheSize) {
+        this.layout = layout;
+        this.index = index;
         this.rankingStrategy = rankingStrategy;
-        this.contextHistory = new HashMap<>();
+        this.contextHistory = new SearchHistory();
         this.currentLanguage = null;
+        this.topKCacheSize = topKCacheSize;
+    }
+
+    private static WordIndex createIndex(RankingStrategy rankingStrategy, TrieLayout layout, int topKCacheSize) {
+        if (topKCacheSize < 0) {
+            throw new IllegalArgumentException("topKCacheSize must not be negative");
+        }
+        if (topKCacheSize > 0 && rankingStrategy.cacheOrder() == null) {
+            throw new IllegalArgumentException("Ranking strategy does not support per-node caching");
+        }
+        if (topKCacheSize > 0 && layout != TrieLayout.HASH_MAP) {
+            throw new IllegalArgumentException("Per-node caching requires the HASH_MAP layout");
+        }
+        return switch (layout) {
+            case HASH_MAP -> new TrieNode();
+            case COMPACT -> new CompactTrie();
+            case CONCURRENT -> new ConcurrentTrie();
+            case RADIX_SNAPSHOT -> throw new IllegalArgumentException(
+                    "Radix snapshots are created with freeze() or openDictionary()");
+        };
     }
 
     /**
@@ -42,34 +112,380 @@ public class AutoCompleteEngine {
      * Add a word to the autocomplete system
      */
     public void addWord(String word, EntryType entryType, String language) {
-        root.insert(word, entryType, language);
+        if (isFrozen()) {
+            throw new IllegalStateException("Cannot add words to a frozen engine");
+        }
+        if (!(index instanceof TrieNode root)) {
+            index.insert(word, entryType, language);
+            modCount.incrementAndGet();
+            invalidateCachedSuggestions(word);
+            return;
+        }
+
+        // Re-adding a word updates its node in place
+        TrieNode existing = root.findNode(word);
+        boolean isNewWord = existing == null || !existing.isEndOfWord();
+        TrieNode node = root.insertFrom(word, 0, entryType, language);
+        modCount.incrementAndGet();
+
+        InfixIndex infix = infixIndex;
+        if (infix != null && isNewWord) {
+            infix.add(node);
+        }
+        if (isNewWord) {
+            refreshRanking(word);
+        } else {
+            // A new entry type or language may rank the word lower, which offering cannot undo
+            rescore(node);
+            rebuildTopEntries(root.getPath(word));
+        }
+        invalidateCachedSuggestions(word);
+    }
+
+    /**
+     * Load many words at once, sorted or not, building the subtree of each first character in
+     * parallel on the common fork/join pool. Usage counts carried by the entries are kept.
+     * Only supported by the HASH_MAP layout.
+     */
+    public BulkLoadReport bulkLoad(Stream<WordEntry> words) {
+        return bulkLoad(words, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Load many words at once on the given pool
+     */
+    public BulkLoadReport bulkLoad(Stream<WordEntry> words, ForkJoinPool pool) {
+        if (isFrozen()) {
+            throw new IllegalStateException("Cannot add words to a frozen engine");
+        }
+        if (!(index instanceof TrieNode root)) {
+            throw new UnsupportedOperationException("Bulk loading needs the HASH_MAP layout, not " + layout);
+        }
+
+        BulkLoader loader = new BulkLoader(root, topKCacheSize > 0 ? rankingStrategy.cacheOrder() : null, topKCacheSize,
+                rankingStrategy.scoringModel());
+        BulkLoadReport report = loader.load(words, pool);
+        modCount.incrementAndGet();
+        if (infixIndex != null) {
+            infixIndex = buildInfixIndex(root);
+        }
+        clearCachedSuggestions();
+        return report;
+    }
+
+    /**
+     * Remove a word; branches left without words are pruned and every cache it appeared in
+     * is updated. Returns false if the word was not in the dictionary.
+     */
+    public boolean removeWord(String word) {
+        if (isFrozen()) {
+            throw new IllegalStateException("Cannot remove words from a frozen engine");
+        }
+
+        List<TrieNode> path = null;
+        if (index instanceof TrieNode root) {
+            path = root.getPath(word);
+            if (path == null || !path.get(path.size() - 1).isEndOfWord()) {
+                return false;
+            }
+            InfixIndex infix = infixIndex;
+            if (infix != null) {
+                infix.remove(path.get(path.size() - 1));
+            }
+        }
+
+        if (!index.remove(word)) {
+            return false;
+        }
+        modCount.incrementAndGet();
+        if (path != null) {
+            rebuildTopEntries(path);
+        }
+        invalidateCachedSuggestions(word);
+        return true;
+    }
+
+    /**
+     * Give back memory left over by removals, e.g. from a periodic maintenance task on the thread
+     * that owns the engine: over-sized child maps and arrays are re-sized to their contents.
+     * A CONCURRENT engine prunes as it removes and needs no compaction.
+     */
+    public void compact() {
+        index.compact();
+    }
+
+    /**
+     * Re-evaluate every precomputed score. Scores are computed when a word changes, so
+     * time-dependent signals such as recency drift in between; suggests and uses call this
+     * once the scores are older than the model's score lifetime, but it may also be called
+     * directly, e.g. after changing what the model depends on.
+     */
+    public void rescore() {
+        ScoringModel model = rankingStrategy.scoringModel();
+        if (model == null || !(index instanceof TrieNode root)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        lastRescoreMillis = now;
+        root.forEachWordNode(node -> node.setScore(model.score(node, now)));
+        if (topKCacheSize > 0) {
+            root.rebuildAllTopEntries(rankingStrategy.cacheOrder(), topKCacheSize);
+        }
+        modCount.incrementAndGet();
+        clearCachedSuggestions();
+    }
+
+    /**
+     * Rescore every word once the scores have outlived the model's score lifetime. Only the
+     * HASH_MAP layout keeps scores, and its engine is confined to one thread, so queries may
+     * do this as well as writes. Returns whether it rescored.
+     */
+    private boolean rescoreIfStale() {
+        ScoringModel model = rankingStrategy.scoringModel();
+        if (model == null || !(index instanceof TrieNode)
+                || System.currentTimeMillis() - lastRescoreMillis < model.scoreLifetimeMillis()) {
+            return false;
+        }
+        rescore();
+        return true;
     }
 
     /**
      * Main suggest method - returns ranked suggestions and learns from search
      */
     public List<String> suggest(String prefix, int maxResults) {
+        return suggest(prefix, maxResults, currentLanguage, contextHistory);
+    }
+
+    /**
+     * Suggest in an explicit language context, recording the search in the given history
+     */
+    List<String> suggest(String prefix, int maxResults, String language, SearchHistory history) {
         // Record this search for context learning
-        recordSearch(prefix);
+        if (language != null) {
+            history.record(prefix, language);
+        }
+        rescoreIfStale();
+
+        SuggestionCache cache = suggestionCache;
+        if (cache == null) {
+            return suggestWords(prefix, maxResults, language);
+        }
+
+        List<String> cached = cache.get(prefix, language, rankingStrategy, maxResults);
+        if (cached != null) {
+            return cached;
+        }
+        long loadToken = cache.startLoad(prefix);
+        List<String> suggestions = suggestWords(prefix, maxResults, language);
+        cache.put(prefix, language, rankingStrategy, maxResults, suggestions, loadToken);
+        return suggestions;
+    }
+
+    private List<String> suggestWords(String prefix, int maxResults, String language) {
+        // Extract words
+        return suggestEntries(prefix, maxResults, language).stream()
+                .map(WordEntry::getWord)
+                .toList();
+    }
 
-        // Get suggestions based on current language context
+    /**
+     * Best maxResults entries for the prefix, ranked, without recording the search
+     */
+    List<WordEntry> suggestEntries(String prefix, int maxResults, String language) {
+        List<WordEntry> cached = getCachedSuggestions(prefix, maxResults, language);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Get suggestions based on the language context
         List<WordEntry> suggestions;
-        if (currentLanguage != null) {
-            suggestions = root.getSuggestions(prefix, currentLanguage);
+        if (language != null) {
+            suggestions = index.getSuggestions(prefix, language);
         } else {
-            suggestions = root.getSuggestions(prefix);
+            suggestions = index.getSuggestions(prefix);
         }
 
-        // Rank suggestions using the strategy
-        List<WordEntry> rankedSuggestions = rankingStrategy.rank(suggestions, prefix);
+        // Rank suggestions using the strategy, keeping only the best maxResults
+        return rankingStrategy.rankTopK(suggestions, prefix, maxResults);
+    }
+
+    /**
+     * Allocation-light suggest for hot paths: appends the best maxResults words for the prefix
+     * to out, best first. With the HASH_MAP layout and a strategy with score keys, nodes are
+     * ranked in place by a reusable per-thread collector and strings are only touched for the
+     * final top-K; otherwise this falls back to {@link #suggest(String, int)}.
+     */
+    public void suggestInto(String prefix, int maxResults, List<? super String> out) {
+        String language = currentLanguage;
+        if (!(index instanceof TrieNode root) || !rankingStrategy.hasScoreKeys()) {
+            out.addAll(suggest(prefix, maxResults, language, contextHistory));
+            return;
+        }
+
+        if (language != null) {
+            contextHistory.record(prefix, language);
+        }
+        rescoreIfStale();
+
+        SuggestionCache cache = suggestionCache;
+        if (cache == null) {
+            collectInto(root, prefix, maxResults, language, out);
+            return;
+        }
+
+        // A result cache hit is already a list of words, so copying it allocates nothing
+        List<String> cachedWords = cache.get(prefix, language, rankingStrategy, maxResults);
+        if (cachedWords == null) {
+            long loadToken = cache.startLoad(prefix);
+            List<String> words = new ArrayList<>(maxResults);
+            collectInto(root, prefix, maxResults, language, words);
+            cachedWords = List.copyOf(words);
+            cache.put(prefix, language, rankingStrategy, maxResults, cachedWords, loadToken);
+        }
+        out.addAll(cachedWords);
+    }
+
+    private void collectInto(TrieNode root, String prefix, int maxResults, String language,
+                             List<? super String> out) {
+        List<WordEntry> cached = getCachedSuggestions(prefix, maxResults, language);
+        if (cached != null) {
+            for (WordEntry entry : cached) {
+                out.add(entry.getWord());
+            }
+            return;
+        }
+
+        TrieNode prefixNode = root.findNode(prefix);
+        if (prefixNode != null) {
+            COLLECTORS.get().collect(prefixNode, prefix, language, rankingStrategy, maxResults, out);
+        }
+    }
+
+    /**
+     * Typo-tolerant suggest: words starting within maxEdits (1 or 2) edits of the prefix.
+     * Closer matches come first; within the same distance the ranking strategy decides.
+     * Only supported by the HASH_MAP layout.
+     */
+    public List<String> suggestFuzzy(String prefix, int maxResults, int maxEdits) {
+        return suggestFuzzy(prefix, maxResults, maxEdits, currentLanguage, contextHistory);
+    }
+
+    List<String> suggestFuzzy(String prefix, int maxResults, int maxEdits, String language, SearchHistory history) {
+        if (maxEdits < 0 || maxEdits > 2) {
+            throw new IllegalArgumentException("maxEdits must be between 0 and 2");
+        }
+        if (!(index instanceof TrieNode root)) {
+            throw new UnsupportedOperationException("Fuzzy suggestions need the HASH_MAP layout, not " + layout);
+        }
+
+        if (language != null) {
+            history.record(prefix, language);
+        }
+
+        List<String> result = new ArrayList<>(maxResults);
+        for (List<WordEntry> bucket : root.getFuzzySuggestions(prefix, maxEdits, language)) {
+            if (result.size() == maxResults) {
+                break;
+            }
+            for (WordEntry entry : rankingStrategy.rankTopK(bucket, prefix, maxResults - result.size())) {
+                result.add(entry.getWord());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Start an incremental query for an editor that suggests on every keystroke.
+     * Only supported by the HASH_MAP layout.
+     */
+    public QueryCursor startQuery() {
+        return startQuery(currentLanguage, contextHistory);
+    }
+
+    QueryCursor startQuery(String language, SearchHistory history) {
+        if (!(index instanceof TrieNode root)) {
+            throw new UnsupportedOperationException("Query cursors need the HASH_MAP layout, not " + layout);
+        }
+        return new QueryCursor(this, root, language, history);
+    }
+
+    /**
+     * Rank a cursor's candidates, answering from the per-node top-K cache when it can
+     * so the candidates are only gathered when needed
+     */
+    List<String> rankCandidates(String prefix, int maxResults, String language, SearchHistory history,
+                                Supplier<List<WordEntry>> candidates) {
+        if (language != null) {
+            history.record(prefix, language);
+        }
 
-        // Extract words and limit results
-        return rankedSuggestions.stream()
+        List<WordEntry> ranked = getCachedSuggestions(prefix, maxResults, language);
+        if (ranked == null) {
+            ranked = rankingStrategy.rankTopK(candidates.get(), prefix, maxResults);
+        }
+        return ranked.stream()
+                .map(WordEntry::getWord)
+                .toList();
+    }
+
+    int getModCount() {
+        return modCount.get();
+    }
+
+    boolean isIndexRoot(TrieNode node) {
+        return index == node;
+    }
+
+    /**
+     * Build and from now on maintain an index for matching inside identifiers, used by
+     * {@link #suggestInfix}. Only supported by the HASH_MAP layout.
+     */
+    public void enableInfixIndex() {
+        if (!(index instanceof TrieNode root)) {
+            throw new UnsupportedOperationException("The infix index needs the HASH_MAP layout, not " + layout);
+        }
+        if (infixIndex == null) {
+            infixIndex = buildInfixIndex(root);
+        }
+    }
+
+    /**
+     * IDE-style matching inside identifiers: words containing the query from a camelCase or
+     * snake_case hump on ("List" -> ArrayList), or matching it as a hump abbreviation
+     * ("hC" -> hashCode, "gUA" -> getUserAccount), ranked by the ranking strategy.
+     * Needs {@link #enableInfixIndex()}.
+     */
+    public List<String> suggestInfix(String query, int maxResults) {
+        return suggestInfix(query, maxResults, currentLanguage, contextHistory);
+    }
+
+    List<String> suggestInfix(String query, int maxResults, String language, SearchHistory history) {
+        InfixIndex infix = infixIndex;
+        if (infix == null) {
+            throw new IllegalStateException("Infix index is not enabled");
+        }
+
+        if (language != null) {
+            history.record(query, language);
+        }
+
+        List<TrieNode> matches = infix.find(query, language);
+        List<WordEntry> entries = new ArrayList<>(matches.size());
+        for (TrieNode node : matches) {
+            entries.add(node.toWordEntry());
+        }
+        return rankingStrategy.rankTopK(entries, query, maxResults).stream()
                 .map(WordEntry::getWord)
-                .limit(maxResults)
                 .toList();
     }
 
+    private static InfixIndex buildInfixIndex(TrieNode root) {
+        InfixIndex infix = new InfixIndex();
+        root.forEachWordNode(infix::add);
+        return infix;
+    }
+
     /**
      * Simplified suggest method with default max results
      */
@@ -81,7 +497,15 @@ public class AutoCompleteEngine {
      * Record usage of a word (when user selects it)
      */
     public void recordUsage(String word) {
-        root.search(word); // This increments usage count
+        if (index.search(word)) { // This increments usage count
+            modCount.incrementAndGet();
+            refreshRanking(word);
+            invalidateCachedSuggestions(word);
+            UsageJournal journal = usageJournal;
+            if (journal != null) {
+                journal.record(word);
+            }
+        }
     }
 
     /**
@@ -100,15 +524,243 @@ public class AutoCompleteEngine {
      * Get context learning statistics
      */
     public Map<String, String> getContextHistory() {
-        return new HashMap<>(contextHistory);
+        return new HashMap<>(contextHistory.snapshot());
+    }
+
+    /**
+     * Open a session with its own language context and a bounded search history
+     * of the default size, sharing this engine's dictionary
+     */
+    public AutoCompleteSession openSession(String language) {
+        return new AutoCompleteSession(this, language, new SearchHistory());
+    }
+
+    /**
+     * Open a session whose history keeps at most historyCapacity prefixes,
+     * each forgotten once not searched for maxHistoryAge
+     */
+    public AutoCompleteSession openSession(String language, int historyCapacity, Duration maxHistoryAge) {
+        return new AutoCompleteSession(this, language, new SearchHistory(historyCapacity, maxHistoryAge));
+    }
+
+    /**
+     * Put a bounded result cache in front of suggest: up to maxEntries ranked lists, each
+     * kept for at most ttl and dropped as soon as a word on its prefix path is added or used
+     */
+    public void enableSuggestionCache(int maxEntries, Duration ttl) {
+        suggestionCache = new SuggestionCache(maxEntries, ttl);
+    }
+
+    /**
+     * The result cache with its hit/miss metrics, or null when not enabled
+     */
+    public SuggestionCache getSuggestionCache() {
+        return suggestionCache;
+    }
+
+    /**
+     * Persist learned usage in directory: usage counts saved there by an earlier run are
+     * restored into the words of the current dictionary, and from now on every recorded use is
+     * appended to the journal in batches, one write per flushInterval.
+     * Load the dictionary before opening the journal; counts of unknown words are skipped.
+     */
+    public UsageJournal openUsageJournal(Path directory, Duration flushInterval) throws IOException {
+        if (usageJournal != null) {
+            throw new IllegalStateException("A usage journal is already open");
+        }
+        usageJournal = UsageJournal.open(directory, flushInterval, UsageJournal.DEFAULT_SNAPSHOT_BYTES,
+                this::restoreUsage);
+        modCount.incrementAndGet();
+        clearCachedSuggestions();
+        return usageJournal;
+    }
+
+    /**
+     * Flush and close the usage journal; later uses are no longer persisted
+     */
+    public void closeUsageJournal() throws IOException {
+        UsageJournal journal = usageJournal;
+        if (journal != null) {
+            usageJournal = null;
+            journal.close();
+        }
+    }
+
+    /**
+     * The open usage journal with its metrics, or null when none is open
+     */
+    public UsageJournal getUsageJournal() {
+        return usageJournal;
+    }
+
+    public TrieLayout getLayout() {
+        return layout;
     }
 
-    private void recordSearch(String prefix) {
-        if (currentLanguage != null) {
-            contextHistory.put(prefix, currentLanguage);
+    /**
+     * Compile the dictionary into a read-only, path-compressed radix snapshot stored in
+     * flat arrays. Suggestions are served from the snapshot and usage counts keep being
+     * recorded in its side table; adding words is no longer possible.
+     * <p>
+     * Not supported by the CONCURRENT layout: the snapshot's counters are plain ints and
+     * swapping the index would lose words added by other threads while it compiles. Such an
+     * engine can still write its dictionary for {@link #openDictionary} to serve.
+     */
+    public void freeze() {
+        if (isFrozen()) {
+            return;
+        }
+        if (layout == TrieLayout.CONCURRENT) {
+            throw new UnsupportedOperationException("Freezing needs a single-threaded layout, not " + layout);
+        }
+        index = RadixSnapshot.compile(index.getSuggestions(""));
+        layout = TrieLayout.RADIX_SNAPSHOT;
+        modCount.incrementAndGet();
+        infixIndex = null;
+        clearCachedSuggestions();
+    }
+
+    public boolean isFrozen() {
+        return layout == TrieLayout.RADIX_SNAPSHOT;
+    }
+
+    /**
+     * Write the dictionary, with its usage counts, to a binary file that
+     * {@link #openDictionary} can memory-map on the next start-up
+     */
+    public void writeDictionary(Path path) throws IOException {
+        RadixSnapshot snapshot = index instanceof RadixSnapshot frozen
+                ? frozen
+                : RadixSnapshot.compile(index.getSuggestions(""));
+        DictionaryFile.write(snapshot, path);
+    }
+
+    /**
+     * Open a frozen engine that serves suggestions directly off a memory-mapped dictionary file
+     */
+    public static AutoCompleteEngine openDictionary(Path path, RankingStrategy rankingStrategy) throws IOException {
+        return new AutoCompleteEngine(rankingStrategy, TrieLayout.RADIX_SNAPSHOT, DictionaryFile.open(path), 0);
+    }
+
+    /**
+     * Estimate the heap used by the word index, for comparing layouts
+     */
+    public MemoryReport getMemoryReport() {
+        return new MemoryReport(layout, index.getSuggestions("").size(), index.estimateMemoryBytes());
+    }
+
+    private void restoreUsage(String word, long count, double decayedCount, long atMillis) {
+        if (index.addUsage(word, count, decayedCount, atMillis)) {
+            // Usage only grows during a replay, so offering the word keeps the top-K lists exact
+            refreshRanking(word);
+        }
+    }
+
+    private void invalidateCachedSuggestions(String word) {
+        SuggestionCache cache = suggestionCache;
+        if (cache != null) {
+            cache.invalidate(word);
         }
     }
 
+    private void clearCachedSuggestions() {
+        SuggestionCache cache = suggestionCache;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Recompute a word's precomputed score and push its current snapshot into the top-K list
+     * of every node on its path
+     */
+    private void refreshRanking(String word) {
+        // Scores and caches are only kept by the HASH_MAP layout and stop once the engine is frozen
+        if ((topKCacheSize == 0 && rankingStrategy.scoringModel() == null) || !(index instanceof TrieNode root)) {
+            return;
+        }
+
+        List<TrieNode> path = root.getPath(word);
+        if (path == null) {
+            return;
+        }
+        if (rescoreIfStale()) {
+            // Scored the whole dictionary, this word included, and rebuilt every top-K list
+            return;
+        }
+
+        if (rescore(path.get(path.size() - 1))) {
+            rebuildTopEntries(path);
+            return;
+        }
+        if (topKCacheSize == 0) {
+            return;
+        }
+        WordEntry entry = path.get(path.size() - 1).toWordEntry();
+        for (TrieNode node : path) {
+            node.offerTopEntry(entry, rankingStrategy.cacheOrder(), topKCacheSize);
+        }
+    }
+
+    /**
+     * Store the scoring model's current score in a word node; returns true if the score fell,
+     * which offering the word to the top-K lists cannot undo
+     */
+    private boolean rescore(TrieNode node) {
+        ScoringModel model = rankingStrategy.scoringModel();
+        if (model == null) {
+            return false;
+        }
+        float previous = node.getScore();
+        float score = model.score(node, System.currentTimeMillis());
+        node.setScore(score);
+        return score < previous;
+    }
+
+    /**
+     * Recompute the top-K lists along a path bottom-up, so each node merges children
+     * whose lists are already rebuilt
+     */
+    private void rebuildTopEntries(List<TrieNode> path) {
+        if (topKCacheSize == 0) {
+            return;
+        }
+        for (int depth = path.size() - 1; depth >= 0; depth--) {
+            path.get(depth).rebuildTopEntries(rankingStrategy.cacheOrder(), topKCacheSize);
+        }
+    }
+
+    /**
+     * Serve suggestions from the per-node top-K list.
+     * Returns null when the cache cannot answer and the full subtree walk is needed.
+     */
+    private List<WordEntry> getCachedSuggestions(String prefix, int maxResults, String language) {
+        // Empty prefix ranks differently in some strategies, and the cache only holds K words
+        if (topKCacheSize == 0 || prefix.isEmpty() || maxResults > topKCacheSize
+                || !(index instanceof TrieNode root)) {
+            return null;
+        }
+
+        TrieNode prefixNode = root.findNode(prefix);
+        if (prefixNode == null) {
+            return List.of();
+        }
+
+        List<WordEntry> topEntries = prefixNode.getTopEntries();
+        List<WordEntry> result = new ArrayList<>(Math.min(maxResults, topEntries.size()));
+        for (WordEntry entry : topEntries) {
+            if (language == null || language.isEmpty() || language.equals(entry.getLanguage())) {
+                result.add(entry);
+                if (result.size() == maxResults) {
+                    return result;
+                }
+            }
+        }
+
+        // A full list filtered down by language may hide matches ranked below the cut
+        return topEntries.size() < topKCacheSize ? result : null;
+    }
+
     private void initializeJava() {
         // Java keywords
         String[] keywords = {
@@ -0,0 +1,76 @@
+package org.lld.autocompletesystem;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One user's view of a shared {@link AutoCompleteEngine}: its own language context and
+ * bounded search history, over the engine's shared dictionary and usage counts.
+ * A session is meant to be used by one request at a time.
+ */
+public class AutoCompleteSession {
+    private final AutoCompleteEngine engine;
+    private final SearchHistory history;
+    private volatile String language;
+
+    AutoCompleteSession(AutoCompleteEngine engine, String language, SearchHistory history) {
+        this.engine = engine;
+        this.language = language;
+        this.history = history;
+    }
+
+    public void setLanguageContext(String language) {
+        this.language = language;
+    }
+
+    public String getLanguageContext() {
+        return language;
+    }
+
+    /**
+     * Ranked suggestions in this session's language context
+     */
+    public List<String> suggest(String prefix, int maxResults) {
+        return engine.suggest(prefix, maxResults, language, history);
+    }
+
+    public List<String> suggest(String prefix) {
+        return suggest(prefix, 10);
+    }
+
+    /**
+     * Typo-tolerant suggestions in this session's language context
+     */
+    public List<String> suggestFuzzy(String prefix, int maxResults, int maxEdits) {
+        return engine.suggestFuzzy(prefix, maxResults, maxEdits, language, history);
+    }
+
+    /**
+     * Matches inside identifiers in this session's language context, see
+     * {@link AutoCompleteEngine#suggestInfix}
+     */
+    public List<String> suggestInfix(String query, int maxResults) {
+        return engine.suggestInfix(query, maxResults, language, history);
+    }
+
+    /**
+     * Start an incremental query in this session's language context
+     */
+    public QueryCursor startQuery() {
+        return engine.startQuery(language, history);
+    }
+
+    /**
+     * Record usage of a word; usage counts are shared by all sessions of the engine
+     */
+    public void recordUsage(String word) {
+        engine.recordUsage(word);
+    }
+
+    /**
+     * This session's prefix -> language history, least recently searched first
+     */
+    public Map<String, String> getContextHistory() {
+        return history.snapshot();
+    }
+}
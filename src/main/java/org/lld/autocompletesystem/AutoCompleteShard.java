@@ -0,0 +1,49 @@
+package org.lld.autocompletesystem;
+
+import java.util.List;
+
+/**
+ * One partition of a {@link ShardedAutoCompleteEngine}. Shards hand back ranked entries rather
+ * than bare words so the coordinator can merge partial top-K lists with the same strategy.
+ * A remote transport only has to implement these calls.
+ */
+public interface AutoCompleteShard {
+
+    /**
+     * Best maxResults entries for the prefix in this shard, ranked best first
+     */
+    List<WordEntry> suggestEntries(String prefix, int maxResults, String language);
+
+    void addWord(String word, EntryType entryType, String language);
+
+    void recordUsage(String word);
+
+    boolean removeWord(String word);
+
+    /**
+     * A shard served by an engine in this JVM
+     */
+    static AutoCompleteShard local(AutoCompleteEngine engine) {
+        return new AutoCompleteShard() {
+            @Override
+            public List<WordEntry> suggestEntries(String prefix, int maxResults, String language) {
+                return engine.suggestEntries(prefix, maxResults, language);
+            }
+
+            @Override
+            public void addWord(String word, EntryType entryType, String language) {
+                engine.addWord(word, entryType, language);
+            }
+
+            @Override
+            public void recordUsage(String word) {
+                engine.recordUsage(word);
+            }
+
+            @Override
+            public boolean removeWord(String word) {
+                return engine.removeWord(word);
+            }
+        };
+    }
+}
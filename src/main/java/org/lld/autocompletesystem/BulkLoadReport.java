@@ -0,0 +1,49 @@
+package org.lld.autocompletesystem;
+
+import java.time.Duration;
+
+/**
+ * Outcome of {@link AutoCompleteEngine#bulkLoad}: how many words were loaded, how long it took
+ * and over how many partitions the work was spread. Partitions are counted at every level, so
+ * a first character that was split again by its next character adds its sub-partitions.
+ */
+public class BulkLoadReport {
+    private final int wordCount;
+    private final int partitionCount;
+    private final int parallelism;
+    private final Duration elapsed;
+
+    public BulkLoadReport(int wordCount, int partitionCount, int parallelism, Duration elapsed) {
+        this.wordCount = wordCount;
+        this.partitionCount = partitionCount;
+        this.parallelism = parallelism;
+        this.elapsed = elapsed;
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    public double getWordsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0.0 : wordCount * 1_000_000_000.0 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%,d words in %d partitions on %d threads, %.1f ms, %,.0f words/sec",
+                wordCount, partitionCount, parallelism, elapsed.toNanos() / 1_000_000.0, getWordsPerSecond());
+    }
+}
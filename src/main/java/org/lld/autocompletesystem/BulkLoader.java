@@ -0,0 +1,119 @@
+package org.lld.autocompletesystem;
+
+import org.lld.autocompletesystem.strategy.ScoringModel;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+
+/**
+ * Loads many words into a HASH_MAP trie at once. Words are partitioned by their first
+ * character and each partition's subtree is built by its own fork/join task; a partition
+ * that is still large is split again by its next character, so a skewed dictionary (every
+ * getter under 'g') still spreads across the pool. Tasks only ever touch the subtree of
+ * their own prefix, so no locking is needed; the root's child map is only changed before
+ * the tasks are forked.
+ */
+final class BulkLoader {
+    // Below this many words a subtree is built by plain sequential inserts
+    private static final int SPLIT_THRESHOLD = 8_192;
+
+    private final TrieNode root;
+    private final Comparator<WordEntry> cacheOrder; // null when top-K caching is off
+    private final int topKCacheSize;
+    private final ScoringModel scoringModel; // null when the strategy scores at query time
+
+    BulkLoader(TrieNode root, Comparator<WordEntry> cacheOrder, int topKCacheSize, ScoringModel scoringModel) {
+        this.root = root;
+        this.cacheOrder = cacheOrder;
+        this.topKCacheSize = topKCacheSize;
+        this.scoringModel = scoringModel;
+    }
+
+    BulkLoadReport load(Stream<WordEntry> words, ForkJoinPool pool) {
+        long start = System.nanoTime();
+
+        List<WordEntry> all = words.toList();
+        BuildTask task = new BuildTask(root, 0, all);
+        pool.invoke(task);
+
+        return new BulkLoadReport(all.size(), task.partitionCount, pool.getParallelism(),
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Builds the subtree below node from words that all share its depth-character prefix
+     */
+    private final class BuildTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final TrieNode node;
+        private final int depth;
+        private final List<WordEntry> words;
+        private int partitionCount; // Partitions of this split and of every split below it
+
+        BuildTask(TrieNode node, int depth, List<WordEntry> words) {
+            this.node = node;
+            this.depth = depth;
+            this.words = words;
+        }
+
+        @Override
+        protected void compute() {
+            // The root is always split so every first character gets its own partition
+            if (depth > 0 && words.size() < SPLIT_THRESHOLD) {
+                for (WordEntry entry : words) {
+                    insert(node, depth, entry);
+                }
+                if (cacheOrder != null) {
+                    node.rebuildAllTopEntries(cacheOrder, topKCacheSize);
+                }
+                return;
+            }
+
+            Map<Character, List<WordEntry>> partitions = new HashMap<>();
+            for (WordEntry entry : words) {
+                if (entry.getWord().length() == depth) {
+                    insert(node, depth, entry); // Ends right here
+                } else {
+                    partitions.computeIfAbsent(entry.getWord().charAt(depth), ch -> new ArrayList<>()).add(entry);
+                }
+            }
+
+            List<BuildTask> tasks = new ArrayList<>(partitions.size());
+            for (Map.Entry<Character, List<WordEntry>> partition : partitions.entrySet()) {
+                TrieNode child = node.getChildren().computeIfAbsent(partition.getKey(), ch -> new TrieNode());
+                tasks.add(new BuildTask(child, depth + 1, partition.getValue()));
+            }
+            invokeAll(tasks);
+
+            // Children were built in parallel; fold their languages and rankings into this node
+            partitionCount = tasks.size();
+            for (BuildTask task : tasks) {
+                partitionCount += task.partitionCount;
+                node.mergeLanguageMask(task.node.getLanguageMask());
+            }
+            if (cacheOrder != null) {
+                node.rebuildTopEntries(cacheOrder, topKCacheSize);
+            }
+        }
+    }
+
+    private void insert(TrieNode node, int depth, WordEntry entry) {
+        TrieNode wordNode = node.insertFrom(entry.getWord(), depth, entry.getEntryType(), entry.getLanguage());
+        long now = System.currentTimeMillis();
+        if (entry.getUsageCount() > 0 || entry.getDecayedUsage() > 0) {
+            wordNode.loadUsage(entry, now);
+        }
+        // Scored before the subtree's top-K lists are rebuilt from it
+        if (scoringModel != null) {
+            wordNode.setScore(scoringModel.score(wordNode, now));
+        }
+    }
+}
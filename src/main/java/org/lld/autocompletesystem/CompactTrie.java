@@ -0,0 +1,158 @@
+package org.lld.autocompletesystem;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Word index built from {@link CompactTrieNode}s.
+ * Same behaviour as the HashMap-based {@link TrieNode}, at a fraction of the bytes per word.
+ */
+public class CompactTrie implements WordIndex {
+
+    private final CompactTrieNode root = new CompactTrieNode();
+
+    @Override
+    public void insert(String word, EntryType entryType, String language) {
+        CompactTrieNode current = root;
+        for (int i = 0; i < word.length(); i++) {
+            current = current.getOrCreateChild(word.charAt(i));
+        }
+
+        WordLeaf leaf = current.getLeaf();
+        if (leaf == null) {
+            current.setLeaf(new WordLeaf(word, entryType, language));
+        } else {
+            leaf.setEntryType(entryType);
+            leaf.setLanguage(language);
+        }
+    }
+
+    @Override
+    public boolean remove(String word) {
+        CompactTrieNode[] path = new CompactTrieNode[word.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < word.length(); i++) {
+            path[i + 1] = path[i].getChild(word.charAt(i));
+            if (path[i + 1] == null) {
+                return false;
+            }
+        }
+        if (path[word.length()].getLeaf() == null) {
+            return false;
+        }
+
+        path[word.length()].setLeaf(null);
+        for (int depth = word.length(); depth > 0; depth--) {
+            CompactTrieNode node = path[depth];
+            if (node.getLeaf() != null || node.getChildCount() > 0) {
+                break;
+            }
+            path[depth - 1].removeChild(word.charAt(depth - 1));
+        }
+        return true;
+    }
+
+    @Override
+    public void compact() {
+        Deque<CompactTrieNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            CompactTrieNode node = stack.pop();
+            node.trimToSize();
+            for (int slot = 0; slot < node.getChildSlots(); slot++) {
+                CompactTrieNode child = node.getChildAt(slot);
+                if (child != null) {
+                    stack.push(child);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean search(String word) {
+        CompactTrieNode node = findNode(word);
+        if (node != null && node.getLeaf() != null) {
+            node.getLeaf().incrementUsageCount();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Compact leaves keep no decayed count, so only the count is added
+     */
+    @Override
+    public boolean addUsage(String word, long count, double decayedCount, long atMillis) {
+        CompactTrieNode node = findNode(word);
+        if (node != null && node.getLeaf() != null) {
+            node.getLeaf().addUsage(count);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean startsWith(String prefix) {
+        return findNode(prefix) != null;
+    }
+
+    @Override
+    public List<WordEntry> getSuggestions(String prefix) {
+        return getSuggestions(prefix, null);
+    }
+
+    @Override
+    public List<WordEntry> getSuggestions(String prefix, String language) {
+        List<WordEntry> suggestions = new ArrayList<>();
+        CompactTrieNode prefixNode = findNode(prefix);
+        if (prefixNode == null) {
+            return suggestions;
+        }
+
+        boolean filter = language != null && !language.isEmpty();
+        Deque<CompactTrieNode> stack = new ArrayDeque<>();
+        stack.push(prefixNode);
+        while (!stack.isEmpty()) {
+            CompactTrieNode node = stack.pop();
+            WordLeaf leaf = node.getLeaf();
+            if (leaf != null && (!filter || language.equals(leaf.getLanguage()))) {
+                suggestions.add(leaf.toWordEntry());
+            }
+            for (int slot = node.getChildSlots() - 1; slot >= 0; slot--) {
+                CompactTrieNode child = node.getChildAt(slot);
+                if (child != null) {
+                    stack.push(child);
+                }
+            }
+        }
+        return suggestions;
+    }
+
+    @Override
+    public long estimateMemoryBytes() {
+        long bytes = 0;
+        Deque<CompactTrieNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            CompactTrieNode node = stack.pop();
+            bytes += node.estimateShallowBytes();
+            for (int slot = 0; slot < node.getChildSlots(); slot++) {
+                CompactTrieNode child = node.getChildAt(slot);
+                if (child != null) {
+                    stack.push(child);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private CompactTrieNode findNode(String word) {
+        CompactTrieNode current = root;
+        for (int i = 0; i < word.length() && current != null; i++) {
+            current = current.getChild(word.charAt(i));
+        }
+        return current;
+    }
+}
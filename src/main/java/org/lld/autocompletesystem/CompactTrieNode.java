@@ -0,0 +1,246 @@
+package org.lld.autocompletesystem;
+
+import java.util.Arrays;
+
+/**
+ * Memory-lean trie node: children are kept in a sorted char[] with a parallel child
+ * array, switching to a dense table indexed by (ch - denseBase) once the fan-out is
+ * large. End-of-word metadata lives in a separate {@link WordLeaf} so interior nodes
+ * carry no per-word fields.
+ */
+public class CompactTrieNode {
+
+    // Fan-out at which a node tries to switch to a dense child table
+    static final int DENSE_THRESHOLD = 16;
+    // A dense table may waste at most this many slots per child
+    private static final int MAX_DENSE_SLOTS_PER_CHILD = 4;
+
+    private char[] keys; // Sorted child labels, null in dense mode
+    private CompactTrieNode[] children;
+    private int childCount;
+    private char denseBase;
+    private WordLeaf leaf;
+
+    public WordLeaf getLeaf() {
+        return leaf;
+    }
+
+    public void setLeaf(WordLeaf leaf) {
+        this.leaf = leaf;
+    }
+
+    public boolean isDense() {
+        return children != null && keys == null;
+    }
+
+    public CompactTrieNode getChild(char ch) {
+        if (children == null) {
+            return null;
+        }
+        if (keys == null) {
+            int slot = ch - denseBase;
+            return slot >= 0 && slot < children.length ? children[slot] : null;
+        }
+        int index = Arrays.binarySearch(keys, 0, childCount, ch);
+        return index >= 0 ? children[index] : null;
+    }
+
+    public CompactTrieNode getOrCreateChild(char ch) {
+        CompactTrieNode child = getChild(ch);
+        if (child != null) {
+            return child;
+        }
+
+        child = new CompactTrieNode();
+        if (isDense()) {
+            putDense(ch, child);
+        } else {
+            putSorted(ch, child);
+        }
+        childCount++;
+
+        if (!isDense() && childCount >= DENSE_THRESHOLD) {
+            tryConvertToDense();
+        }
+        return child;
+    }
+
+    /**
+     * Remove the child labelled ch, if any. Arrays are not shrunk here; see {@link #trimToSize()}.
+     */
+    public void removeChild(char ch) {
+        if (children == null) {
+            return;
+        }
+        if (isDense()) {
+            int slot = ch - denseBase;
+            if (slot >= 0 && slot < children.length && children[slot] != null) {
+                children[slot] = null;
+                childCount--;
+            }
+            return;
+        }
+
+        int index = Arrays.binarySearch(keys, 0, childCount, ch);
+        if (index >= 0) {
+            System.arraycopy(keys, index + 1, keys, index, childCount - index - 1);
+            System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+            childCount--;
+            children[childCount] = null;
+        }
+    }
+
+    /**
+     * Drop spare capacity: sorted arrays are cut to the child count, and a dense table
+     * that removals left too sparse goes back to the sorted representation
+     */
+    public void trimToSize() {
+        if (children == null) {
+            return;
+        }
+        if (childCount == 0) {
+            keys = null;
+            children = null;
+            denseBase = 0;
+            return;
+        }
+
+        if (isDense()) {
+            if (childCount < DENSE_THRESHOLD
+                    || children.length > childCount * MAX_DENSE_SLOTS_PER_CHILD) {
+                convertToSorted();
+            } else {
+                trimDenseTable();
+                return;
+            }
+        }
+        if (keys.length != childCount) {
+            keys = Arrays.copyOf(keys, childCount);
+            children = Arrays.copyOf(children, childCount);
+        }
+    }
+
+    /**
+     * Number of child slots to scan with {@link #getChildAt}; dense slots may be null
+     */
+    public int getChildSlots() {
+        if (children == null) {
+            return 0;
+        }
+        return isDense() ? children.length : childCount;
+    }
+
+    public int getChildCount() {
+        return childCount;
+    }
+
+    public CompactTrieNode getChildAt(int slot) {
+        return children[slot];
+    }
+
+    /**
+     * Estimated bytes of this node, its child arrays and its leaf record
+     */
+    public long estimateShallowBytes() {
+        // header + keys + children + childCount + denseBase + leaf
+        long bytes = MemoryEstimates.align(MemoryEstimates.OBJECT_HEADER + 4 + 4 + 4 + 2 + 4);
+        if (keys != null) {
+            bytes += MemoryEstimates.charArray(keys.length);
+        }
+        if (children != null) {
+            bytes += MemoryEstimates.referenceArray(children.length);
+        }
+        if (leaf != null) {
+            // header + word + entryType + language + usageCount
+            bytes += MemoryEstimates.align(MemoryEstimates.OBJECT_HEADER + 4 + 4 + 4 + 4);
+        }
+        return bytes;
+    }
+
+    private void putSorted(char ch, CompactTrieNode child) {
+        if (children == null) {
+            keys = new char[1];
+            children = new CompactTrieNode[1];
+        } else if (childCount == keys.length) {
+            int capacity = childCount + (childCount >> 1) + 1;
+            keys = Arrays.copyOf(keys, capacity);
+            children = Arrays.copyOf(children, capacity);
+        }
+
+        int insertAt = -(Arrays.binarySearch(keys, 0, childCount, ch) + 1);
+        System.arraycopy(keys, insertAt, keys, insertAt + 1, childCount - insertAt);
+        System.arraycopy(children, insertAt, children, insertAt + 1, childCount - insertAt);
+        keys[insertAt] = ch;
+        children[insertAt] = child;
+    }
+
+    private void putDense(char ch, CompactTrieNode child) {
+        int low = Math.min(denseBase, ch);
+        int high = Math.max(denseBase + children.length - 1, ch);
+        int range = high - low + 1;
+
+        if (range > (childCount + 1) * MAX_DENSE_SLOTS_PER_CHILD) {
+            // Too sparse for a table, fall back to the sorted representation
+            convertToSorted();
+            putSorted(ch, child);
+            return;
+        }
+
+        if (low != denseBase || range != children.length) {
+            CompactTrieNode[] table = new CompactTrieNode[range];
+            System.arraycopy(children, 0, table, denseBase - low, children.length);
+            children = table;
+            denseBase = (char) low;
+        }
+        children[ch - denseBase] = child;
+    }
+
+    private void tryConvertToDense() {
+        int range = keys[childCount - 1] - keys[0] + 1;
+        if (range > childCount * MAX_DENSE_SLOTS_PER_CHILD) {
+            return;
+        }
+
+        CompactTrieNode[] table = new CompactTrieNode[range];
+        for (int i = 0; i < childCount; i++) {
+            table[keys[i] - keys[0]] = children[i];
+        }
+        denseBase = keys[0];
+        children = table;
+        keys = null;
+    }
+
+    /**
+     * Cut empty slots off both ends of the dense table
+     */
+    private void trimDenseTable() {
+        int first = 0;
+        while (children[first] == null) {
+            first++;
+        }
+        int last = children.length - 1;
+        while (children[last] == null) {
+            last--;
+        }
+        if (first > 0 || last < children.length - 1) {
+            children = Arrays.copyOfRange(children, first, last + 1);
+            denseBase = (char) (denseBase + first);
+        }
+    }
+
+    private void convertToSorted() {
+        char[] sortedKeys = new char[childCount + 1];
+        CompactTrieNode[] sortedChildren = new CompactTrieNode[childCount + 1];
+        int count = 0;
+        for (int slot = 0; slot < children.length; slot++) {
+            if (children[slot] != null) {
+                sortedKeys[count] = (char) (denseBase + slot);
+                sortedChildren[count] = children[slot];
+                count++;
+            }
+        }
+        keys = sortedKeys;
+        children = sortedChildren;
+        denseBase = 0;
+    }
+}
@@ -0,0 +1,150 @@
+package org.lld.autocompletesystem;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Word index that can be shared by many threads: inserts, removals and usage increments
+ * run concurrently, and suggestion reads never block. Reads are weakly consistent; a
+ * word inserted during a query may or may not be part of its result.
+ * Removal prunes empty branches immediately, so {@link #compact()} has nothing to do;
+ * ConcurrentHashMap tables of surviving nodes keep their size.
+ */
+public class ConcurrentTrie implements WordIndex {
+
+    private final ConcurrentTrieNode root = new ConcurrentTrieNode();
+
+    @Override
+    public void insert(String word, EntryType entryType, String language) {
+        while (true) {
+            ConcurrentTrieNode current = root;
+            for (int i = 0; i < word.length() && current != null; i++) {
+                current = current.getOrCreateChild(word.charAt(i));
+            }
+            // A concurrent removal retired a node on the path; walk again from the root
+            if (current != null && current.publishLeaf(word, entryType, language)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(String word) {
+        ConcurrentTrieNode[] path = new ConcurrentTrieNode[word.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < word.length(); i++) {
+            path[i + 1] = path[i].getChildren().get(word.charAt(i));
+            if (path[i + 1] == null) {
+                return false;
+            }
+        }
+        if (!path[word.length()].clearLeaf()) {
+            return false;
+        }
+
+        for (int depth = word.length(); depth > 0 && path[depth].retireIfEmpty(); depth--) {
+            path[depth - 1].getChildren().remove(word.charAt(depth - 1), path[depth]);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean search(String word) {
+        ConcurrentTrieNode node = findNode(word);
+        ConcurrentTrieNode.Leaf leaf = node != null ? node.getLeaf() : null;
+        if (leaf != null) {
+            leaf.incrementUsageCount();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean addUsage(String word, long count, double decayedCount, long atMillis) {
+        ConcurrentTrieNode node = findNode(word);
+        ConcurrentTrieNode.Leaf leaf = node != null ? node.getLeaf() : null;
+        if (leaf != null) {
+            leaf.addUsage(count, decayedCount, atMillis);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean startsWith(String prefix) {
+        return findNode(prefix) != null;
+    }
+
+    @Override
+    public List<WordEntry> getSuggestions(String prefix) {
+        return getSuggestions(prefix, null);
+    }
+
+    @Override
+    public List<WordEntry> getSuggestions(String prefix, String language) {
+        List<WordEntry> suggestions = new ArrayList<>();
+        ConcurrentTrieNode prefixNode = findNode(prefix);
+        if (prefixNode == null) {
+            return suggestions;
+        }
+
+        boolean filter = language != null && !language.isEmpty();
+        Deque<ConcurrentTrieNode> stack = new ArrayDeque<>();
+        stack.push(prefixNode);
+        while (!stack.isEmpty()) {
+            ConcurrentTrieNode node = stack.pop();
+            ConcurrentTrieNode.Leaf leaf = node.getLeaf();
+            if (leaf != null && (!filter || language.equals(leaf.getLanguage()))) {
+                suggestions.add(leaf.toWordEntry());
+            }
+            for (ConcurrentTrieNode child : node.getChildren().values()) {
+                stack.push(child);
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Rough estimate: node, ConcurrentHashMap with table and entries, leaf and LongAdder base
+     */
+    @Override
+    public long estimateMemoryBytes() {
+        long nodeBytes = MemoryEstimates.align(MemoryEstimates.OBJECT_HEADER + 4 + 4 + 1)
+                + MemoryEstimates.align(MemoryEstimates.OBJECT_HEADER + 4) // AtomicReference
+                + 64; // ConcurrentHashMap without table
+        long entryBytes = MemoryEstimates.align(MemoryEstimates.OBJECT_HEADER + 4 + 4 + 4 + 4);
+        long leafBytes = MemoryEstimates.align(MemoryEstimates.OBJECT_HEADER + 4 * 4)
+                + MemoryEstimates.align(MemoryEstimates.OBJECT_HEADER + 4 + 8 + 4); // LongAdder
+
+        long bytes = 0;
+        Deque<ConcurrentTrieNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            ConcurrentTrieNode node = stack.pop();
+            bytes += nodeBytes;
+            int size = node.getChildren().size();
+            if (size > 0) {
+                int capacity = 16;
+                while (size > capacity * 3 / 4) {
+                    capacity *= 2;
+                }
+                bytes += MemoryEstimates.referenceArray(capacity) + size * entryBytes;
+            }
+            if (node.getLeaf() != null) {
+                bytes += leafBytes;
+            }
+            stack.addAll(node.getChildren().values());
+        }
+        return bytes;
+    }
+
+    private ConcurrentTrieNode findNode(String word) {
+        ConcurrentTrieNode current = root;
+        for (int i = 0; i < word.length() && current != null; i++) {
+            current = current.getChildren().get(word.charAt(i));
+        }
+        return current;
+    }
+}
@@ -0,0 +1,137 @@
+package org.lld.autocompletesystem;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe trie node: children live in a ConcurrentHashMap and the end-of-word
+ * metadata is an immutable {@link Leaf} published through an AtomicReference, so
+ * readers never lock and always see a fully constructed leaf.
+ * <p>
+ * Removal prunes empty nodes by retiring them. Adding a child, publishing a leaf and
+ * retiring all hold the node's monitor, so a retired node never gains a word; writers
+ * that reach one get null/false back and retry from the root.
+ */
+public class ConcurrentTrieNode {
+
+    private final Map<Character, ConcurrentTrieNode> children = new ConcurrentHashMap<>();
+    private final AtomicReference<Leaf> leaf = new AtomicReference<>();
+    private volatile boolean retired; // Written under this node's monitor
+
+    public Map<Character, ConcurrentTrieNode> getChildren() {
+        return children;
+    }
+
+    /**
+     * Existing or new child for ch; null if this node has been retired
+     */
+    public ConcurrentTrieNode getOrCreateChild(char ch) {
+        while (true) {
+            ConcurrentTrieNode child = children.get(ch);
+            if (child == null) {
+                synchronized (this) {
+                    return retired ? null : children.computeIfAbsent(ch, key -> new ConcurrentTrieNode());
+                }
+            }
+            if (!child.retired) {
+                return child;
+            }
+            // Retired but not yet unlinked by the remover; unlink it ourselves and look again
+            children.remove(ch, child);
+        }
+    }
+
+    public Leaf getLeaf() {
+        return leaf.get();
+    }
+
+    /**
+     * Publish new metadata for this word, keeping the usage counters of any previous leaf;
+     * false if this node has been retired
+     */
+    public synchronized boolean publishLeaf(String word, EntryType entryType, String language) {
+        if (retired) {
+            return false;
+        }
+        Leaf current = leaf.get();
+        leaf.set(current != null
+                ? new Leaf(word, entryType, language, current.usage, current.decayedUsage)
+                : new Leaf(word, entryType, language, new LongAdder(), new DecayingCounter()));
+        return true;
+    }
+
+    /**
+     * Drop this node's word; false if there was none
+     */
+    public synchronized boolean clearLeaf() {
+        return leaf.getAndSet(null) != null;
+    }
+
+    /**
+     * Retire this node if it holds neither a word nor children; the caller then unlinks it
+     */
+    public synchronized boolean retireIfEmpty() {
+        if (leaf.get() != null || !children.isEmpty()) {
+            return false;
+        }
+        retired = true;
+        return true;
+    }
+
+    /**
+     * Immutable end-of-word metadata. The usage counters are adder-based so hot words
+     * incremented from many threads do not contend on a single cache line.
+     */
+    public static final class Leaf {
+        private final String word;
+        private final EntryType entryType;
+        private final String language;
+        private final LongAdder usage;
+        private final DecayingCounter decayedUsage;
+
+        private Leaf(String word, EntryType entryType, String language,
+                     LongAdder usage, DecayingCounter decayedUsage) {
+            this.word = word;
+            this.entryType = entryType;
+            this.language = language;
+            this.usage = usage;
+            this.decayedUsage = decayedUsage;
+        }
+
+        public String getWord() {
+            return word;
+        }
+
+        public EntryType getEntryType() {
+            return entryType;
+        }
+
+        public String getLanguage() {
+            return language;
+        }
+
+        public void incrementUsageCount() {
+            usage.increment();
+            decayedUsage.increment(System.currentTimeMillis());
+        }
+
+        public void addUsage(long count, double decayedCount, long atMillis) {
+            usage.add(count);
+            decayedUsage.add(decayedCount, atMillis);
+        }
+
+        public int getUsageCount() {
+            return (int) Math.min(usage.sum(), Integer.MAX_VALUE);
+        }
+
+        public double getDecayedUsage() {
+            return decayedUsage.get(System.currentTimeMillis());
+        }
+
+        public WordEntry toWordEntry() {
+            return new WordEntry(word, entryType, language, getUsageCount(), getDecayedUsage());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.lld.autocompletesystem;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Exponentially decayed event counter: every increment loses half of its weight per
+ * half-life. Decay is applied lazily on read from the counter's epoch timestamp, so an
+ * idle counter costs nothing.
+ * <p>
+ * An increment at time t adds 2^((t - epoch) / halfLife) to a DoubleAdder, and a read at
+ * time now scales the sum by 2^(-(now - epoch) / halfLife). Increments from many threads
+ * therefore spread over the adder's cells instead of contending on one value. Once the
+ * weights grow large the counter is rebased to a newer epoch; an increment racing with
+ * a rebase, which happens once every 64 half-lives, may be lost.
+ */
+public class DecayingCounter {
+
+    public static final Duration DEFAULT_HALF_LIFE = Duration.ofDays(7);
+
+    // Rebase before weights reach 2^64, far below double overflow
+    private static final double REBASE_EXPONENT = 64.0;
+
+    private final double halfLifeMillis;
+    private volatile State state;
+
+    public DecayingCounter() {
+        this(DEFAULT_HALF_LIFE);
+    }
+
+    public DecayingCounter(Duration halfLife) {
+        if (halfLife.isZero() || halfLife.isNegative()) {
+            throw new IllegalArgumentException("halfLife must be positive");
+        }
+        this.halfLifeMillis = halfLife.toMillis();
+        this.state = new State(System.currentTimeMillis());
+    }
+
+    public void increment(long nowMillis) {
+        add(1.0, nowMillis);
+    }
+
+    /**
+     * Add amount as if it happened at nowMillis
+     */
+    public void add(double amount, long nowMillis) {
+        State current = state;
+        double exponent = (nowMillis - current.epochMillis) / halfLifeMillis;
+        if (exponent > REBASE_EXPONENT) {
+            current = rebase(current, nowMillis);
+            exponent = (nowMillis - current.epochMillis) / halfLifeMillis;
+        }
+        current.weight.add(amount * Math.pow(2.0, exponent));
+    }
+
+    /**
+     * Decayed value as seen at nowMillis
+     */
+    public double get(long nowMillis) {
+        State current = state;
+        return current.weight.sum() * Math.pow(2.0, -(nowMillis - current.epochMillis) / halfLifeMillis);
+    }
+
+    private synchronized State rebase(State expected, long nowMillis) {
+        if (state != expected) {
+            return state; // Another thread rebased first
+        }
+        State next = new State(nowMillis);
+        next.weight.add(get(nowMillis));
+        state = next;
+        return next;
+    }
+
+    private static final class State {
+        private final long epochMillis;
+        private final DoubleAdder weight = new DoubleAdder();
+
+        private State(long epochMillis) {
+            this.epochMillis = epochMillis;
+        }
+    }
+}
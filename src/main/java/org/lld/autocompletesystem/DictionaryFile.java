@@ -0,0 +1,256 @@
+package org.lld.autocompletesystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary, versioned on-disk form of a {@link RadixSnapshot}, opened with FileChannel.map
+ * so suggestions are served off the mapped pages without copying the trie onto the heap.
+ * <p>
+ * Layout (little-endian, sections ordered by element size so each stays aligned):
+ * <pre>
+ * header     magic "ACDX", version, nodeCount, wordCount, labelLength, languageCount
+ * languages  languageCount x (int byteLength, UTF-8 bytes; -1 and no bytes for no language), padded to 4 bytes
+ * int[]      labelStart[nodeCount + 1], firstChild[nodeCount + 1], wordIds[nodeCount], usageCounts[wordCount]
+ * char[]     labels[labelLength]
+ * short[]    languages[wordCount]
+ * byte[]     entryTypes[wordCount]
+ * </pre>
+ * Only the language table and the usage count side table are copied onto the heap. Opening
+ * checks the header, that every section fits in the file and that every index in the node and
+ * word arrays is in range, so a truncated or corrupt file fails with an IOException rather
+ * than on first use. That check reads each section once, touching every mapped page.
+ * Version 1 files wrote no language as an empty name, which is read back as no language.
+ */
+public final class DictionaryFile {
+
+    public static final int MAGIC = 0x41434458; // "ACDX"
+    public static final int VERSION = 2;
+
+    private static final int NO_LANGUAGE = -1; // Language byte length marking a word without a language
+
+    private static final int HEADER_BYTES = 6 * Integer.BYTES;
+    private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private DictionaryFile() {
+    }
+
+    /**
+     * Write the snapshot, including its current usage counts, replacing any existing file.
+     * The file is built next to the target and renamed over it, so a snapshot mapped from the
+     * target, such as the one being written, keeps reading the old file's pages.
+     */
+    public static void write(RadixSnapshot snapshot, Path path) throws IOException {
+        String[] languageTable = snapshot.languageTable();
+        byte[][] encodedLanguages = new byte[languageTable.length][];
+        long languageBytes = 0;
+        for (int i = 0; i < languageTable.length; i++) {
+            encodedLanguages[i] = languageTable[i] == null ? null : languageTable[i].getBytes(StandardCharsets.UTF_8);
+            languageBytes += Integer.BYTES + (encodedLanguages[i] == null ? 0 : encodedLanguages[i].length);
+        }
+
+        int nodeCount = snapshot.getNodeCount();
+        int wordCount = snapshot.getWordCount();
+        CharBuffer labels = snapshot.labels();
+        long size = align4(HEADER_BYTES + languageBytes)
+                + (long) Integer.BYTES * (2L * (nodeCount + 1) + nodeCount + wordCount)
+                + (long) Character.BYTES * labels.remaining()
+                + (long) Short.BYTES * wordCount
+                + wordCount;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Dictionary too large for a single mapping: " + size + " bytes");
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ORDER);
+
+            buffer.putInt(MAGIC).putInt(VERSION)
+                    .putInt(nodeCount).putInt(wordCount)
+                    .putInt(labels.remaining()).putInt(languageTable.length);
+            for (byte[] encoded : encodedLanguages) {
+                if (encoded == null) {
+                    buffer.putInt(NO_LANGUAGE);
+                } else {
+                    buffer.putInt(encoded.length).put(encoded);
+                }
+            }
+            buffer.position((int) align4(buffer.position()));
+
+            putInts(buffer, snapshot.labelStarts());
+            putInts(buffer, snapshot.firstChildren());
+            putInts(buffer, snapshot.wordIds());
+            putInts(buffer, IntBuffer.wrap(snapshot.usageCounts()));
+            int labelLength = labels.remaining();
+            buffer.asCharBuffer().put(labels);
+            buffer.position(buffer.position() + Character.BYTES * labelLength);
+            buffer.asShortBuffer().put(snapshot.languages());
+            buffer.position(buffer.position() + Short.BYTES * wordCount);
+            buffer.put(snapshot.entryTypes());
+
+            buffer.force();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Map a dictionary file read-only. The mapping stays valid after the channel is closed.
+     */
+    public static RadixSnapshot open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Dictionary too large for a single mapping: " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ORDER);
+
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("Not an autocomplete dictionary file: " + path);
+        }
+        int version = buffer.getInt();
+        if (version != 1 && version != VERSION) {
+            throw new IOException("Unsupported dictionary version " + version + " in " + path);
+        }
+        int nodeCount = buffer.getInt();
+        int wordCount = buffer.getInt();
+        int labelLength = buffer.getInt();
+        int languageCount = buffer.getInt();
+        // Node 0 is the root; languages are indexed by a signed short per word
+        if (nodeCount < 1 || wordCount < 0 || labelLength < 0 || languageCount < 0
+                || languageCount > Short.MAX_VALUE + 1 || wordCount > nodeCount) {
+            throw corrupt(path, "invalid header counts");
+        }
+
+        String[] languageTable = new String[languageCount];
+        for (int i = 0; i < languageCount; i++) {
+            if (buffer.remaining() < Integer.BYTES) {
+                throw corrupt(path, "truncated language table");
+            }
+            int length = buffer.getInt();
+            if (length == NO_LANGUAGE && version >= 2) {
+                continue;
+            }
+            if (length < 0 || length > buffer.remaining()) {
+                throw corrupt(path, "invalid language name length " + length);
+            }
+            byte[] encoded = new byte[length];
+            buffer.get(encoded);
+            // Version 1 had no marker for a missing language and wrote it as an empty name
+            languageTable[i] = version == 1 && length == 0 ? null : new String(encoded, StandardCharsets.UTF_8);
+        }
+        long sectionsStart = align4(buffer.position());
+        long sectionBytes = (long) Integer.BYTES * (2L * (nodeCount + 1) + nodeCount + wordCount)
+                + (long) Character.BYTES * labelLength
+                + (long) Short.BYTES * wordCount
+                + wordCount;
+        if (sectionsStart + sectionBytes > buffer.limit()) {
+            throw corrupt(path, "sections need " + (sectionsStart + sectionBytes)
+                    + " bytes but the file has " + buffer.limit());
+        }
+        buffer.position((int) sectionsStart);
+
+        IntBuffer labelStart = sliceInts(buffer, nodeCount + 1);
+        IntBuffer firstChild = sliceInts(buffer, nodeCount + 1);
+        IntBuffer wordIds = sliceInts(buffer, nodeCount);
+        int[] usageCounts = new int[wordCount];
+        sliceInts(buffer, wordCount).get(usageCounts);
+
+        CharBuffer labels = buffer.slice().order(ORDER).asCharBuffer().limit(labelLength).slice();
+        buffer.position(buffer.position() + Character.BYTES * labelLength);
+        ShortBuffer languages = buffer.slice().order(ORDER).asShortBuffer().limit(wordCount).slice();
+        buffer.position(buffer.position() + Short.BYTES * wordCount);
+        ByteBuffer entryTypes = buffer.slice().limit(wordCount).slice();
+
+        String problem = checkNodes(labelStart, firstChild, wordIds, nodeCount, wordCount, labelLength);
+        if (problem == null) {
+            problem = checkWords(usageCounts, languages, entryTypes, languageCount);
+        }
+        if (problem != null) {
+            throw corrupt(path, problem);
+        }
+
+        return new RadixSnapshot(labels, labelStart, firstChild, wordIds,
+                entryTypes, languages, languageTable, usageCounts);
+    }
+
+    /**
+     * Nodes are laid out breadth-first: labels and child ranges only move forward, and every
+     * child comes after its parent, so walking the tree stays in range and always ends.
+     * Returns what is wrong, or null.
+     */
+    private static String checkNodes(IntBuffer labelStart, IntBuffer firstChild, IntBuffer wordIds,
+                                     int nodeCount, int wordCount, int labelLength) {
+        if (labelStart.get(0) != 0 || labelStart.get(nodeCount) != labelLength
+                || firstChild.get(nodeCount) != nodeCount) {
+            return "node arrays do not match the header";
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            if (labelStart.get(node + 1) < labelStart.get(node)) {
+                return "label of node " + node + " ends before it starts";
+            }
+            int children = firstChild.get(node);
+            if (children <= node || children > firstChild.get(node + 1)) {
+                return "children of node " + node + " out of order";
+            }
+            int wordId = wordIds.get(node);
+            if (wordId < -1 || wordId >= wordCount) {
+                return "word id " + wordId + " of node " + node + " out of range";
+            }
+        }
+        return null;
+    }
+
+    private static String checkWords(int[] usageCounts, ShortBuffer languages, ByteBuffer entryTypes,
+                                     int languageCount) {
+        int typeCount = EntryType.values().length;
+        for (int wordId = 0; wordId < usageCounts.length; wordId++) {
+            if (usageCounts[wordId] < 0) {
+                return "negative usage count for word " + wordId;
+            }
+            short language = languages.get(wordId);
+            if (language < 0 || language >= languageCount) {
+                return "language " + language + " of word " + wordId + " out of range";
+            }
+            byte type = entryTypes.get(wordId);
+            if (type < -1 || type >= typeCount) {
+                return "entry type " + type + " of word " + wordId + " out of range";
+            }
+        }
+        return null;
+    }
+
+    private static IOException corrupt(Path path, String reason) {
+        return new IOException("Corrupt dictionary file " + path + ": " + reason);
+    }
+
+    private static void putInts(ByteBuffer buffer, IntBuffer values) {
+        int count = values.remaining();
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + Integer.BYTES * count);
+    }
+
+    private static IntBuffer sliceInts(ByteBuffer buffer, int count) {
+        IntBuffer ints = buffer.slice().order(ORDER).asIntBuffer().limit(count).slice();
+        buffer.position(buffer.position() + Integer.BYTES * count);
+        return ints;
+    }
+
+    private static long align4(long position) {
+        return (position + 3) & ~3L;
+    }
+}
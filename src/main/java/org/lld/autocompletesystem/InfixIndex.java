@@ -0,0 +1,229 @@
+package org.lld.autocompletesystem;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Secondary index over a HASH_MAP trie for IDE-style matching inside identifiers.
+ * Words are split into camelCase / snake_case humps ("ArrayList" -> Array, List), and two
+ * sorted maps are kept, both lower-cased and keyed from every hump onwards:
+ * <ul>
+ *   <li>hump suffixes ("arraylist", "list"), so "List" finds ArrayList by a range scan;</li>
+ *   <li>hump initials ("al", "l"), so "hC" finds hashCode and "gUA" finds getUserAccount.</li>
+ * </ul>
+ * A lookup is a log-time seek plus a scan of the matching keys only; the initials map is only
+ * consulted for queries of two or more humps, since a one-hump query is already answered by
+ * the suffixes. Keys are lower-cased one char at a time so offsets into a key are offsets
+ * into the word, which {@link String#toLowerCase} does not promise. Matching substrings
+ * that start mid-hump would need a full suffix array and is not supported.
+ */
+final class InfixIndex {
+    private static final char RANGE_END = Character.MAX_VALUE;
+
+    private final TreeMap<String, List<TrieNode>> suffixes = new TreeMap<>();
+    private final TreeMap<String, List<Posting>> initials = new TreeMap<>();
+
+    /**
+     * Index a word once, when it is first added to the trie
+     */
+    void add(TrieNode node) {
+        String word = node.getWord();
+        int[] starts = humpStarts(word);
+        String lowerWord = lowerCase(word);
+        String allInitials = initialsOf(lowerWord, starts, 0);
+
+        for (int hump = 0; hump < starts.length; hump++) {
+            suffixes.computeIfAbsent(lowerWord.substring(starts[hump]), key -> new ArrayList<>(1)).add(node);
+            // Initials of the humps from here on are a suffix of the whole word's initials
+            initials.computeIfAbsent(allInitials.substring(hump), key -> new ArrayList<>(1))
+                    .add(new Posting(node, hump, starts));
+        }
+    }
+
+    /**
+     * Unindex a word that is about to be removed from the trie; node must still carry its word
+     */
+    void remove(TrieNode node) {
+        String word = node.getWord();
+        int[] starts = humpStarts(word);
+        String lowerWord = lowerCase(word);
+        String allInitials = initialsOf(lowerWord, starts, 0);
+
+        for (int hump = 0; hump < starts.length; hump++) {
+            String suffix = lowerWord.substring(starts[hump]);
+            List<TrieNode> nodes = suffixes.get(suffix);
+            if (nodes != null && nodes.remove(node) && nodes.isEmpty()) {
+                suffixes.remove(suffix);
+            }
+
+            String initialsKey = allInitials.substring(hump);
+            List<Posting> postings = initials.get(initialsKey);
+            if (postings != null && postings.removeIf(posting -> posting.node == node) && postings.isEmpty()) {
+                initials.remove(initialsKey);
+            }
+        }
+    }
+
+    /**
+     * Words containing the query at a hump boundary or matching it as a camelCase abbreviation,
+     * each word once, optionally limited to a language
+     */
+    List<TrieNode> find(String query, String language) {
+        List<String> queryHumps = queryHumps(query);
+        if (queryHumps.isEmpty()) {
+            return List.of();
+        }
+
+        Map<TrieNode, Boolean> found = new IdentityHashMap<>();
+        for (List<TrieNode> nodes : range(suffixes, lowerCase(query)).values()) {
+            for (TrieNode node : nodes) {
+                if (matchesLanguage(node, language)) {
+                    found.put(node, Boolean.TRUE);
+                }
+            }
+        }
+        if (queryHumps.size() == 1) {
+            // Every word whose hump starts with the query is already in the suffix range
+            return new ArrayList<>(found.keySet());
+        }
+
+        StringBuilder queryInitials = new StringBuilder(queryHumps.size());
+        for (String hump : queryHumps) {
+            queryInitials.append(Character.toLowerCase(hump.charAt(0)));
+        }
+        for (List<Posting> postings : range(initials, queryInitials.toString()).values()) {
+            for (Posting posting : postings) {
+                if (!found.containsKey(posting.node) && matchesLanguage(posting.node, language)
+                        && matchesHumps(posting.node.getWord(), posting.starts, posting.hump, queryHumps)) {
+                    found.put(posting.node, Boolean.TRUE);
+                }
+            }
+        }
+
+        return new ArrayList<>(found.keySet());
+    }
+
+    private static <V> NavigableMap<String, V> range(TreeMap<String, V> map, String keyPrefix) {
+        return map.subMap(keyPrefix, true, keyPrefix + RANGE_END, false);
+    }
+
+    private static boolean matchesLanguage(TrieNode node, String language) {
+        return language == null || language.isEmpty() || language.equals(node.getLanguage());
+    }
+
+    /**
+     * Whether each query hump is a case-insensitive prefix of the word's humps from firstHump on
+     */
+    private static boolean matchesHumps(String word, int[] starts, int firstHump, List<String> queryHumps) {
+        if (firstHump + queryHumps.size() > starts.length) {
+            return false;
+        }
+        for (int i = 0; i < queryHumps.size(); i++) {
+            String queryHump = queryHumps.get(i);
+            int start = starts[firstHump + i];
+            int end = firstHump + i + 1 < starts.length ? starts[firstHump + i + 1] : word.length();
+            if (end - start < queryHump.length()
+                    || !word.regionMatches(true, start, queryHump, 0, queryHump.length())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Offsets where humps start: the first character, an upper-case letter after a lower-case
+     * letter or digit, the last capital of an acronym before a lower-case letter
+     * ("HTMLParser" -> HTML, Parser), and the character after '_', '.' or '$'
+     */
+    static int[] humpStarts(String word) {
+        int[] starts = new int[word.length()];
+        int count = 0;
+        for (int i = 0; i < word.length(); i++) {
+            char ch = word.charAt(i);
+            if (isSeparator(ch)) {
+                continue;
+            }
+            if (i == 0 || isSeparator(word.charAt(i - 1))) {
+                starts[count++] = i;
+                continue;
+            }
+            char previous = word.charAt(i - 1);
+            boolean upper = Character.isUpperCase(ch);
+            if (upper && (Character.isLowerCase(previous) || Character.isDigit(previous))) {
+                starts[count++] = i;
+            } else if (upper && Character.isUpperCase(previous)
+                    && i + 1 < word.length() && Character.isLowerCase(word.charAt(i + 1))) {
+                starts[count++] = i;
+            }
+        }
+        int[] result = new int[count];
+        System.arraycopy(starts, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * Query humps start at every upper-case letter and after separators, so "hC" is h, C
+     * and "getUsAc" is get, Us, Ac
+     */
+    private static List<String> queryHumps(String query) {
+        List<String> humps = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i < query.length(); i++) {
+            char ch = query.charAt(i);
+            if (isSeparator(ch)) {
+                if (start >= 0) {
+                    humps.add(query.substring(start, i));
+                }
+                start = -1;
+            } else if (start < 0) {
+                start = i;
+            } else if (Character.isUpperCase(ch)) {
+                humps.add(query.substring(start, i));
+                start = i;
+            }
+        }
+        if (start >= 0) {
+            humps.add(query.substring(start));
+        }
+        return humps;
+    }
+
+    private static String initialsOf(String lowerWord, int[] starts, int fromHump) {
+        StringBuilder initials = new StringBuilder(starts.length - fromHump);
+        for (int hump = fromHump; hump < starts.length; hump++) {
+            initials.append(lowerWord.charAt(starts[hump]));
+        }
+        return initials.toString();
+    }
+
+    /**
+     * Lower-case char by char, keeping the length and every offset of the original
+     */
+    private static String lowerCase(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static boolean isSeparator(char ch) {
+        return ch == '_' || ch == '.' || ch == '$';
+    }
+
+    private static final class Posting {
+        private final TrieNode node;
+        private final int hump; // Index of the hump the initials key starts at
+        private final int[] starts; // Hump offsets of the word, shared by all its postings
+
+        private Posting(TrieNode node, int hump, int[] starts) {
+            this.node = node;
+            this.hump = hump;
+            this.starts = starts;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.lld.autocompletesystem;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns each language a bit so trie nodes can record which languages occur in their
+ * subtree. The first 31 languages get their own bit; any further languages share the
+ * last bit, which still prunes correctly but less sharply.
+ */
+final class LanguageMask {
+
+    private static final int SHARED_BIT_INDEX = 31;
+    private static final Map<String, Integer> BITS = new ConcurrentHashMap<>();
+
+    private LanguageMask() {
+    }
+
+    /**
+     * Bit for the language, registering it on first use; 0 for a null language
+     */
+    static int bitFor(String language) {
+        if (language == null) {
+            return 0;
+        }
+        return BITS.computeIfAbsent(language, key -> 1 << Math.min(BITS.size(), SHARED_BIT_INDEX));
+    }
+
+    /**
+     * Bit for an already registered language, or 0 if no word was ever added in it
+     */
+    static int existingBitFor(String language) {
+        return language == null ? 0 : BITS.getOrDefault(language, 0);
+    }
+}
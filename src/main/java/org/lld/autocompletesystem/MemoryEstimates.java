@@ -0,0 +1,31 @@
+package org.lld.autocompletesystem;
+
+/**
+ * Shallow object sizes for a 64-bit JVM with compressed oops:
+ * 12 byte object headers, 16 byte array headers, 4 byte references, 8 byte alignment.
+ */
+final class MemoryEstimates {
+
+    static final int OBJECT_HEADER = 12;
+    static final int ARRAY_HEADER = 16;
+    static final int REFERENCE = 4;
+
+    private MemoryEstimates() {
+    }
+
+    static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    static long referenceArray(int length) {
+        return align(ARRAY_HEADER + (long) REFERENCE * length);
+    }
+
+    static long charArray(int length) {
+        return align(ARRAY_HEADER + 2L * length);
+    }
+
+    static long intArray(int length) {
+        return align(ARRAY_HEADER + 4L * length);
+    }
+}
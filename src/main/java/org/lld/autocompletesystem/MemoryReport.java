@@ -0,0 +1,38 @@
+package org.lld.autocompletesystem;
+
+/**
+ * Estimated heap footprint of an engine's word index
+ */
+public class MemoryReport {
+    private final TrieLayout layout;
+    private final int wordCount;
+    private final long estimatedBytes;
+
+    public MemoryReport(TrieLayout layout, int wordCount, long estimatedBytes) {
+        this.layout = layout;
+        this.wordCount = wordCount;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    public TrieLayout getLayout() {
+        return layout;
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public double getBytesPerWord() {
+        return wordCount == 0 ? 0.0 : (double) estimatedBytes / wordCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d words, %,d bytes, %.1f bytes/word",
+                layout, wordCount, estimatedBytes, getBytesPerWord());
+    }
+}
@@ -0,0 +1,155 @@
+package org.lld.autocompletesystem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keystroke-by-keystroke query over a HASH_MAP engine. The cursor keeps the trie path of the
+ * text typed so far, so type and backspace move one node instead of re-walking from the root,
+ * and it remembers the candidate words gathered at each depth: the candidates after typing a
+ * character are the previous candidates whose next character matches, so the subtree is only
+ * walked once per query. Candidates are dropped whenever the engine's dictionary or usage
+ * counts change. A cursor is meant to be used by one thread.
+ */
+public class QueryCursor {
+    private final AutoCompleteEngine engine;
+    private final TrieNode root;
+    private final String language;
+    private final SearchHistory history;
+
+    private final StringBuilder typed = new StringBuilder();
+    private final List<TrieNode> path = new ArrayList<>(); // path.get(d) spells the first d chars
+    private final List<List<WordEntry>> candidates = new ArrayList<>(); // by depth, null until needed
+    private int modCount;
+
+    QueryCursor(AutoCompleteEngine engine, TrieNode root, String language, SearchHistory history) {
+        this.engine = engine;
+        this.root = root;
+        this.language = language;
+        this.history = history;
+        this.modCount = engine.getModCount();
+        path.add(root);
+        candidates.add(null);
+    }
+
+    /**
+     * Append a character to the query
+     */
+    public QueryCursor type(char ch) {
+        typed.append(ch);
+        // Past a dead end the path stops growing; its depth no longer matches the text
+        if (path.size() == typed.length()) {
+            TrieNode child = path.get(path.size() - 1).getChildren().get(ch);
+            if (child != null) {
+                path.add(child);
+                candidates.add(null);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Append every character of text to the query
+     */
+    public QueryCursor type(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            type(text.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * Remove the last typed character; returns false if the query was already empty
+     */
+    public boolean backspace() {
+        if (typed.isEmpty()) {
+            return false;
+        }
+        if (path.size() == typed.length() + 1) {
+            path.remove(path.size() - 1);
+            candidates.remove(candidates.size() - 1);
+        }
+        typed.setLength(typed.length() - 1);
+        return true;
+    }
+
+    /**
+     * The text typed so far
+     */
+    public String getPrefix() {
+        return typed.toString();
+    }
+
+    /**
+     * Best k suggestions for the text typed so far, ranked as {@link AutoCompleteEngine#suggest}
+     * would rank them
+     */
+    public List<String> top(int k) {
+        String prefix = typed.toString();
+        if (!engine.isIndexRoot(root)) {
+            // The engine was frozen; its trie is gone
+            return engine.suggest(prefix, k, language, history);
+        }
+        if (modCount != engine.getModCount()) {
+            resync();
+        }
+        if (path.size() <= typed.length()) {
+            return engine.rankCandidates(prefix, k, language, history, List::of);
+        }
+        return engine.rankCandidates(prefix, k, language, history, () -> candidatesAt(typed.length()));
+    }
+
+    public List<String> top() {
+        return top(10);
+    }
+
+    /**
+     * Candidates for the prefix of the given depth, filtered down from the deepest
+     * shallower depth that already has them, or collected from the subtree if none does
+     */
+    private List<WordEntry> candidatesAt(int depth) {
+        int known = depth;
+        while (known >= 0 && candidates.get(known) == null) {
+            known--;
+        }
+
+        if (known < 0) {
+            known = depth;
+            candidates.set(depth, path.get(depth).collectSuggestions(typed.substring(0, depth), language));
+        }
+
+        for (int d = known + 1; d <= depth; d++) {
+            char ch = typed.charAt(d - 1);
+            List<WordEntry> parent = candidates.get(d - 1);
+            List<WordEntry> filtered = new ArrayList<>();
+            for (WordEntry entry : parent) {
+                // Every parent candidate has at least d - 1 chars; the one spelling the parent is dropped
+                if (entry.getWord().length() >= d && entry.getWord().charAt(d - 1) == ch) {
+                    filtered.add(entry);
+                }
+            }
+            candidates.set(d, filtered);
+        }
+        return candidates.get(depth);
+    }
+
+    /**
+     * Re-walk the typed text after the dictionary changed: new words may extend a dead end,
+     * and cached candidates hold stale usage counts
+     */
+    private void resync() {
+        path.subList(1, path.size()).clear();
+        candidates.clear();
+        candidates.add(null);
+        TrieNode current = root;
+        for (int i = 0; i < typed.length(); i++) {
+            current = current.getChildren().get(typed.charAt(i));
+            if (current == null) {
+                break;
+            }
+            path.add(current);
+            candidates.add(null);
+        }
+        modCount = engine.getModCount();
+    }
+}
@@ -0,0 +1,415 @@
+package org.lld.autocompletesystem;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only, path-compressed radix tree stored in flat arrays.
+ * <p>
+ * The arrays are accessed through NIO buffers: a compiled snapshot wraps heap arrays,
+ * while {@link DictionaryFile#open} serves the same layout straight off a mapped file.
+ * <p>
+ * Nodes are numbered in breadth-first order, so the children of a node are contiguous
+ * and sorted by their first label character, and both edge labels and child ranges can
+ * be derived from the next node's start offset. Words are not stored as strings: they
+ * are rebuilt from edge labels while collecting suggestions. Word ids are positions in
+ * sorted order and index the entry type, language and usage side tables.
+ */
+public class RadixSnapshot implements WordIndex {
+
+    private static final EntryType[] ENTRY_TYPES = EntryType.values();
+    private static final byte NO_TYPE = -1;
+
+    private final CharBuffer labels;      // Edge labels of all nodes, concatenated
+    private final IntBuffer labelStart;   // Node i's label is labels[labelStart[i], labelStart[i + 1])
+    private final IntBuffer firstChild;   // Node i's children are [firstChild[i], firstChild[i + 1])
+    private final IntBuffer wordIds;      // Word ending at node i, or -1
+
+    private final ByteBuffer entryTypes;  // Per word id: EntryType ordinal
+    private final ShortBuffer languages;  // Per word id: index into languageTable
+    private final String[] languageTable;
+    private final int[] usageCounts;      // Per word id: mutable side table, always on the heap
+
+    RadixSnapshot(CharBuffer labels, IntBuffer labelStart, IntBuffer firstChild, IntBuffer wordIds,
+                  ByteBuffer entryTypes, ShortBuffer languages, String[] languageTable, int[] usageCounts) {
+        this.labels = labels;
+        this.labelStart = labelStart;
+        this.firstChild = firstChild;
+        this.wordIds = wordIds;
+        this.entryTypes = entryTypes;
+        this.languages = languages;
+        this.languageTable = languageTable;
+        this.usageCounts = usageCounts;
+    }
+
+    /**
+     * Compile the given entries (one per word) into a snapshot, keeping their usage counts
+     */
+    public static RadixSnapshot compile(List<WordEntry> entries) {
+        List<WordEntry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparing(WordEntry::getWord));
+
+        int wordCount = sorted.size();
+        byte[] entryTypes = new byte[wordCount];
+        short[] languages = new short[wordCount];
+        int[] usageCounts = new int[wordCount];
+        Map<String, Integer> languageIds = new HashMap<>();
+        List<String> languageTable = new ArrayList<>();
+
+        for (int id = 0; id < wordCount; id++) {
+            WordEntry entry = sorted.get(id);
+            entryTypes[id] = entry.getEntryType() == null ? NO_TYPE : (byte) entry.getEntryType().ordinal();
+            languages[id] = languageIds.computeIfAbsent(entry.getLanguage(), language -> {
+                languageTable.add(language);
+                return languageTable.size() - 1;
+            }).shortValue();
+            usageCounts[id] = entry.getUsageCount();
+        }
+        if (languageTable.size() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many distinct languages: " + languageTable.size());
+        }
+
+        Builder builder = new Builder(sorted);
+        builder.build();
+        return new RadixSnapshot(CharBuffer.wrap(builder.labels.toString().toCharArray()),
+                IntBuffer.wrap(builder.labelStart.toArray()), IntBuffer.wrap(builder.firstChild.toArray()),
+                IntBuffer.wrap(builder.wordIds.toArray()), ByteBuffer.wrap(entryTypes), ShortBuffer.wrap(languages),
+                languageTable.toArray(new String[0]), usageCounts);
+    }
+
+    @Override
+    public void insert(String word, EntryType entryType, String language) {
+        throw new UnsupportedOperationException("Radix snapshot is read-only");
+    }
+
+    @Override
+    public boolean remove(String word) {
+        throw new UnsupportedOperationException("Radix snapshot is read-only");
+    }
+
+    @Override
+    public boolean search(String word) {
+        int node = findExactNode(word);
+        if (node >= 0 && wordIds.get(node) >= 0) {
+            int wordId = wordIds.get(node);
+            if (usageCounts[wordId] < Integer.MAX_VALUE) {
+                usageCounts[wordId]++;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * The side table keeps plain counts; the decayed count is not tracked
+     */
+    @Override
+    public boolean addUsage(String word, long count, double decayedCount, long atMillis) {
+        int node = findExactNode(word);
+        if (node >= 0 && wordIds.get(node) >= 0) {
+            int wordId = wordIds.get(node);
+            usageCounts[wordId] = (int) Math.min(usageCounts[wordId] + count, Integer.MAX_VALUE);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean startsWith(String prefix) {
+        return findPrefixNode(prefix, new StringBuilder()) >= 0;
+    }
+
+    @Override
+    public List<WordEntry> getSuggestions(String prefix) {
+        return getSuggestions(prefix, null);
+    }
+
+    @Override
+    public List<WordEntry> getSuggestions(String prefix, String language) {
+        List<WordEntry> suggestions = new ArrayList<>();
+        StringBuilder path = new StringBuilder(prefix.length() + 16);
+        int node = findPrefixNode(prefix, path);
+        if (node < 0) {
+            return suggestions;
+        }
+
+        int languageFilter = -1;
+        if (language != null && !language.isEmpty()) {
+            languageFilter = indexOfLanguage(language);
+            if (languageFilter < 0) {
+                return suggestions;
+            }
+        }
+
+        collect(node, path, languageFilter, suggestions);
+        return suggestions;
+    }
+
+    /**
+     * Heap bytes only: sections served from a mapped file cost no heap
+     */
+    @Override
+    public long estimateMemoryBytes() {
+        long bytes = MemoryEstimates.referenceArray(languageTable.length)
+                + MemoryEstimates.intArray(usageCounts.length);
+        if (labels.hasArray()) {
+            bytes += MemoryEstimates.charArray(labels.capacity())
+                    + MemoryEstimates.intArray(labelStart.capacity())
+                    + MemoryEstimates.intArray(firstChild.capacity())
+                    + MemoryEstimates.intArray(wordIds.capacity())
+                    + MemoryEstimates.align(MemoryEstimates.ARRAY_HEADER + entryTypes.capacity())
+                    + MemoryEstimates.align(MemoryEstimates.ARRAY_HEADER + 2L * languages.capacity());
+        }
+        return bytes;
+    }
+
+    public int getNodeCount() {
+        return wordIds.capacity();
+    }
+
+    public int getWordCount() {
+        return usageCounts.length;
+    }
+
+    // Raw sections, used by DictionaryFile to write the snapshot
+    CharBuffer labels() {
+        return labels.duplicate();
+    }
+
+    IntBuffer labelStarts() {
+        return labelStart.duplicate();
+    }
+
+    IntBuffer firstChildren() {
+        return firstChild.duplicate();
+    }
+
+    IntBuffer wordIds() {
+        return wordIds.duplicate();
+    }
+
+    ByteBuffer entryTypes() {
+        return entryTypes.duplicate();
+    }
+
+    ShortBuffer languages() {
+        return languages.duplicate();
+    }
+
+    String[] languageTable() {
+        return languageTable.clone();
+    }
+
+    int[] usageCounts() {
+        return usageCounts.clone();
+    }
+
+    /**
+     * Depth-first walk below node; path holds the word spelled so far
+     */
+    private void collect(int node, StringBuilder path, int languageFilter, List<WordEntry> suggestions) {
+        int wordId = wordIds.get(node);
+        if (wordId >= 0 && (languageFilter < 0 || languages.get(wordId) == languageFilter)) {
+            suggestions.add(new WordEntry(path.toString(), entryType(wordId),
+                    languageTable[languages.get(wordId)], usageCounts[wordId]));
+        }
+
+        for (int child = firstChild.get(node); child < firstChild.get(node + 1); child++) {
+            int length = path.length();
+            path.append(labels, labelStart.get(child), labelStart.get(child + 1));
+            collect(child, path, languageFilter, suggestions);
+            path.setLength(length);
+        }
+    }
+
+    /**
+     * Node whose subtree holds every word starting with prefix, or -1.
+     * The prefix may end inside that node's label; path receives the full label path.
+     */
+    private int findPrefixNode(String prefix, StringBuilder path) {
+        int node = 0;
+        int matched = 0;
+        while (matched < prefix.length()) {
+            int child = findChild(node, prefix.charAt(matched));
+            if (child < 0) {
+                return -1;
+            }
+
+            int start = labelStart.get(child);
+            int length = labelStart.get(child + 1) - start;
+            int compare = Math.min(length, prefix.length() - matched);
+            for (int i = 0; i < compare; i++) {
+                if (labels.get(start + i) != prefix.charAt(matched + i)) {
+                    return -1;
+                }
+            }
+            path.append(labels, start, start + length);
+            matched += compare;
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * Node at which word ends exactly, or -1
+     */
+    private int findExactNode(String word) {
+        int node = 0;
+        int matched = 0;
+        while (matched < word.length()) {
+            int child = findChild(node, word.charAt(matched));
+            if (child < 0) {
+                return -1;
+            }
+
+            int start = labelStart.get(child);
+            int length = labelStart.get(child + 1) - start;
+            if (length > word.length() - matched) {
+                return -1;
+            }
+            for (int i = 0; i < length; i++) {
+                if (labels.get(start + i) != word.charAt(matched + i)) {
+                    return -1;
+                }
+            }
+            matched += length;
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * Binary search over the contiguous, sorted children of node by first label character
+     */
+    private int findChild(int node, char ch) {
+        int low = firstChild.get(node);
+        int high = firstChild.get(node + 1) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char first = labels.get(labelStart.get(mid));
+            if (first < ch) {
+                low = mid + 1;
+            } else if (first > ch) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int indexOfLanguage(String language) {
+        for (int i = 0; i < languageTable.length; i++) {
+            if (language.equals(languageTable[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private EntryType entryType(int wordId) {
+        byte ordinal = entryTypes.get(wordId);
+        return ordinal == NO_TYPE ? null : ENTRY_TYPES[ordinal];
+    }
+
+    /**
+     * Lays out the radix tree breadth-first from words in sorted order.
+     * Every node covers a range of sorted words sharing the path to that node.
+     */
+    private static class Builder {
+        private final List<WordEntry> sorted;
+        private final StringBuilder labels = new StringBuilder();
+        private final IntList labelStart = new IntList();
+        private final IntList firstChild = new IntList();
+        private final IntList wordIds = new IntList();
+
+        private Builder(List<WordEntry> sorted) {
+            this.sorted = sorted;
+        }
+
+        private void build() {
+            // Each pending item: {low, high, depth} for the node with the same index
+            Deque<int[]> pending = new ArrayDeque<>();
+            labelStart.add(0); // Root has an empty label
+            pending.add(new int[]{0, sorted.size(), 0});
+            int nextNode = 1;
+
+            while (!pending.isEmpty()) {
+                int[] range = pending.poll();
+                int low = range[0];
+                int high = range[1];
+                int depth = range[2];
+
+                firstChild.add(nextNode);
+                if (low < high && word(low).length() == depth) {
+                    wordIds.add(low);
+                    low++;
+                } else {
+                    wordIds.add(-1);
+                }
+
+                // Group the remaining words by their character at depth
+                while (low < high) {
+                    char ch = word(low).charAt(depth);
+                    int groupEnd = low + 1;
+                    while (groupEnd < high && word(groupEnd).charAt(depth) == ch) {
+                        groupEnd++;
+                    }
+
+                    // Sorted order: the group's common prefix is that of its first and last word
+                    int end = commonPrefixLength(word(low), word(groupEnd - 1));
+                    labelStart.add(labels.length());
+                    labels.append(word(low), depth, end);
+                    pending.add(new int[]{low, groupEnd, end});
+                    nextNode++;
+                    low = groupEnd;
+                }
+            }
+
+            labelStart.add(labels.length());
+            firstChild.add(nextNode);
+        }
+
+        private String word(int index) {
+            return sorted.get(index).getWord();
+        }
+
+        private static int commonPrefixLength(String a, String b) {
+            int length = Math.min(a.length(), b.length());
+            int i = 0;
+            while (i < length && a.charAt(i) == b.charAt(i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+    /**
+     * Growable int array, avoids boxing while building
+     */
+    private static class IntList {
+        private int[] values = new int[64];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.lld.autocompletesystem;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded record of searched prefixes and the language they were searched in.
+ * Keeps at most capacity prefixes in least-recently-used order and drops entries
+ * not searched again within maxAge, so memory stays flat regardless of traffic.
+ * <p>
+ * Recording is best effort: a search that finds the history busy in another thread
+ * is skipped rather than blocking the suggest path.
+ */
+public class SearchHistory {
+
+    public static final int DEFAULT_CAPACITY = 1_000;
+    public static final Duration DEFAULT_MAX_AGE = Duration.ofHours(1);
+
+    private final int capacity;
+    private final long maxAgeMillis;
+    private final LinkedHashMap<String, Entry> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public SearchHistory() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_AGE);
+    }
+
+    public SearchHistory(int capacity, Duration maxAge) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.maxAgeMillis = maxAge.toMillis();
+        // Access order: the eldest entry is the least recently searched one
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > SearchHistory.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Record that prefix was searched in language
+     */
+    public void record(String prefix, String language) {
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            entries.put(prefix, new Entry(language, now));
+            evictExpired(now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Current prefix -> language pairs, least recently searched first
+     */
+    public Map<String, String> snapshot() {
+        lock.lock();
+        try {
+            evictExpired(System.currentTimeMillis());
+            Map<String, String> result = new LinkedHashMap<>();
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().language);
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Entries are in recency order, so expired ones are all at the head
+     */
+    private void evictExpired(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().searchedAtMillis <= maxAgeMillis) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    private static final class Entry {
+        private final String language;
+        private final long searchedAtMillis;
+
+        private Entry(String language, long searchedAtMillis) {
+            this.language = language;
+            this.searchedAtMillis = searchedAtMillis;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package org.lld.autocompletesystem;
+
+import org.lld.autocompletesystem.strategy.RankingStrategy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Autocomplete over a dictionary partitioned by word range across several shards. Shard i
+ * owns the words w with splitPoints[i - 1] <= w < splitPoints[i]; a prefix is sent only to the
+ * shards whose range can hold words starting with it, and their ranked partial top-K lists are
+ * merged with the ranking strategy. Shards that miss the deadline are left out of the answer
+ * rather than holding up the whole query. Safe to share across threads when the shards are.
+ */
+public class ShardedAutoCompleteEngine implements AutoCloseable {
+    private final RankingStrategy rankingStrategy;
+    private final List<AutoCompleteShard> shards;
+    private final String[] splitPoints;
+    private final Duration timeout;
+    private final ExecutorService executor;
+    private final SearchHistory contextHistory;
+    private volatile String currentLanguage;
+
+    private final LongAdder shardCalls = new LongAdder();
+    private final LongAdder timedOutShardCalls = new LongAdder();
+
+    /**
+     * Create shardCount in-process CONCURRENT engines splitting the lowercase alphabet evenly by
+     * first letter; words sorting before 'a', such as capitalised class names, land on the first shard
+     */
+    public ShardedAutoCompleteEngine(RankingStrategy rankingStrategy, int shardCount, Duration timeout) {
+        this(rankingStrategy, localShards(rankingStrategy, shardCount), alphabetSplitPoints(shardCount), timeout);
+    }
+
+    /**
+     * Shard over the given shards; splitPoints must be sorted and hold one entry fewer than shards
+     */
+    public ShardedAutoCompleteEngine(RankingStrategy rankingStrategy, List<AutoCompleteShard> shards,
+                                     List<String> splitPoints, Duration timeout) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        if (splitPoints.size() != shards.size() - 1) {
+            throw new IllegalArgumentException("Expected " + (shards.size() - 1) + " split points, got "
+                    + splitPoints.size());
+        }
+        for (int i = 1; i < splitPoints.size(); i++) {
+            if (splitPoints.get(i - 1).compareTo(splitPoints.get(i)) >= 0) {
+                throw new IllegalArgumentException("Split points must be strictly increasing");
+            }
+        }
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("timeout must be positive");
+        }
+
+        this.rankingStrategy = rankingStrategy;
+        this.shards = List.copyOf(shards);
+        this.splitPoints = splitPoints.toArray(new String[0]);
+        this.timeout = timeout;
+        this.executor = Executors.newFixedThreadPool(shards.size(), runnable -> {
+            Thread thread = new Thread(runnable, "autocomplete-shard");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.contextHistory = new SearchHistory();
+    }
+
+    /**
+     * Split points that give each shard about the same number of the sample words
+     */
+    public static List<String> balancedSplitPoints(List<String> sampleWords, int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be positive");
+        }
+        List<String> sorted = new ArrayList<>(sampleWords);
+        Collections.sort(sorted);
+
+        List<String> points = new ArrayList<>(shardCount - 1);
+        for (int i = 1; i < shardCount && !sorted.isEmpty(); i++) {
+            String point = sorted.get((int) ((long) sorted.size() * i / shardCount));
+            if (points.isEmpty() || points.get(points.size() - 1).compareTo(point) < 0) {
+                points.add(point);
+            }
+        }
+        if (points.size() != shardCount - 1) {
+            throw new IllegalArgumentException("Sample has too few distinct words for " + shardCount + " shards");
+        }
+        return points;
+    }
+
+    public void setLanguageContext(String language) {
+        this.currentLanguage = language;
+    }
+
+    public String getLanguageContext() {
+        return currentLanguage;
+    }
+
+    public void addWord(String word, EntryType entryType, String language) {
+        shards.get(shardIndex(word)).addWord(word, entryType, language);
+    }
+
+    public void recordUsage(String word) {
+        shards.get(shardIndex(word)).recordUsage(word);
+    }
+
+    public boolean removeWord(String word) {
+        return shards.get(shardIndex(word)).removeWord(word);
+    }
+
+    public List<String> suggest(String prefix) {
+        return suggest(prefix, 10);
+    }
+
+    /**
+     * Ranked suggestions gathered from every shard that may hold words with this prefix
+     */
+    public List<String> suggest(String prefix, int maxResults) {
+        String language = currentLanguage;
+        if (language != null) {
+            contextHistory.record(prefix, language);
+        }
+
+        int first = shardIndex(prefix);
+        int last = first;
+        while (last < splitPoints.length && splitPoints[last].startsWith(prefix)) {
+            last++;
+        }
+
+        // Even a single owner goes through the executor so the deadline bounds every query
+        List<WordEntry> merged = gather(first, last, prefix, maxResults, language);
+        if (first != last) {
+            merged = rankingStrategy.rankTopK(merged, prefix, maxResults);
+        }
+
+        return merged.stream()
+                .map(WordEntry::getWord)
+                .toList();
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public List<String> getSplitPoints() {
+        return List.of(splitPoints);
+    }
+
+    /**
+     * Shard queries issued so far, and how many of them missed the deadline
+     */
+    public long getShardCalls() {
+        return shardCalls.sum();
+    }
+
+    public long getTimedOutShardCalls() {
+        return timedOutShardCalls.sum();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Query shards first..last in parallel and collect whatever arrives before the deadline
+     */
+    private List<WordEntry> gather(int first, int last, String prefix, int maxResults, String language) {
+        List<Future<List<WordEntry>>> futures = new ArrayList<>(last - first + 1);
+        for (int i = first; i <= last; i++) {
+            AutoCompleteShard shard = shards.get(i);
+            futures.add(executor.submit(() -> shard.suggestEntries(prefix, maxResults, language)));
+        }
+        shardCalls.add(futures.size());
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<WordEntry> partials = new ArrayList<>(futures.size() * maxResults);
+        for (Future<List<WordEntry>> future : futures) {
+            try {
+                partials.addAll(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                timedOutShardCalls.increment();
+                future.cancel(true);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Shard query failed for prefix '" + prefix + "'", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(pending -> pending.cancel(true));
+                break;
+            }
+        }
+        return partials;
+    }
+
+    /**
+     * Index of the shard whose range holds the word: the number of split points <= word
+     */
+    private int shardIndex(String word) {
+        int index = Arrays.binarySearch(splitPoints, word);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static List<AutoCompleteShard> localShards(RankingStrategy rankingStrategy, int shardCount) {
+        List<AutoCompleteShard> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(AutoCompleteShard.local(new AutoCompleteEngine(rankingStrategy, TrieLayout.CONCURRENT)));
+        }
+        return shards;
+    }
+
+    private static List<String> alphabetSplitPoints(int shardCount) {
+        if (shardCount < 1 || shardCount > 26) {
+            throw new IllegalArgumentException("shardCount must be between 1 and 26");
+        }
+        List<String> points = new ArrayList<>(shardCount - 1);
+        for (int i = 1; i < shardCount; i++) {
+            points.add(String.valueOf((char) ('a' + 26 * i / shardCount)));
+        }
+        return points;
+    }
+}
@@ -0,0 +1,286 @@
+package org.lld.autocompletesystem;
+
+import org.lld.autocompletesystem.strategy.RankingStrategy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of ranked suggestion lists keyed by (prefix, language, strategy, limit).
+ * Holds at most maxEntries results, each for at most ttl. A change to a word invalidates
+ * exactly the cached prefixes of that word, since those are the only results it can appear
+ * in; other prefixes stay cached.
+ * <p>
+ * Entries are split by prefix into segments with their own lock, so concurrent suggests for
+ * different prefixes rarely wait on each other. Each segment evicts its least-recently-used
+ * entry, so eviction order is LRU per segment rather than across the whole cache.
+ */
+public class SuggestionCache {
+    private static final int MAX_SEGMENTS = 16;
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Segment[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public SuggestionCache(int maxEntries, Duration ttl) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        // A power of two no larger than maxEntries, so every segment holds at least one entry
+        int count = Integer.highestOneBit(Math.min(MAX_SEGMENTS, maxEntries));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(maxEntries / count + (i < maxEntries % count ? 1 : 0));
+        }
+    }
+
+    /**
+     * Cached suggestions, or null on a miss
+     */
+    List<String> get(String prefix, String language, RankingStrategy strategy, int limit) {
+        Key key = new Key(prefix, language, strategy, limit);
+        Segment segment = segmentFor(prefix);
+        segment.lock.lock();
+        try {
+            Entry entry = segment.entries.get(key);
+            if (entry != null && System.nanoTime() - entry.storedAtNanos > ttlNanos) {
+                segment.entries.remove(key);
+                segment.unindex(key);
+                evictions.increment();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.suggestions;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Token to pass to {@link #put} for a result for this prefix computed after this call
+     */
+    long startLoad(String prefix) {
+        Segment segment = segmentFor(prefix);
+        segment.lock.lock();
+        try {
+            return segment.invalidationCount;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Cache a computed result, unless a word changed while it was being computed
+     */
+    void put(String prefix, String language, RankingStrategy strategy, int limit,
+             List<String> suggestions, long loadToken) {
+        Key key = new Key(prefix, language, strategy, limit);
+        Segment segment = segmentFor(prefix);
+        segment.lock.lock();
+        try {
+            if (loadToken != segment.invalidationCount) {
+                return;
+            }
+            if (segment.entries.put(key, new Entry(suggestions, System.nanoTime())) == null) {
+                segment.keysByPrefix.computeIfAbsent(prefix, p -> new ArrayList<>(2)).add(key);
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Drop every cached result whose prefix is a prefix of word
+     */
+    void invalidate(String word) {
+        for (int length = 0; length <= word.length(); length++) {
+            String prefix = word.substring(0, length);
+            Segment segment = segmentFor(prefix);
+            segment.lock.lock();
+            try {
+                // Bumped even when nothing is cached, since a load for this prefix may be in flight
+                segment.invalidationCount++;
+                List<Key> keys = segment.keysByPrefix.remove(prefix);
+                if (keys != null) {
+                    for (Key key : keys) {
+                        segment.entries.remove(key);
+                    }
+                    invalidations.add(keys.size());
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Drop everything, e.g. after a bulk load or freeze
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.invalidationCount++;
+                invalidations.add(segment.entries.size());
+                segment.entries.clear();
+                segment.keysByPrefix.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    /**
+     * Entries dropped for size or age
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Entries dropped because a word on their prefix path changed
+     */
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.entries.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d/%d entries, %d hits, %d misses (%.1f%%), %d evictions, %d invalidations",
+                size(), maxEntries, getHitCount(), getMissCount(), getHitRate() * 100,
+                getEvictionCount(), getInvalidationCount());
+    }
+
+    private Segment segmentFor(String prefix) {
+        int hash = prefix.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * Every key of one prefix lands in the same segment, so its prefix index stays local
+     */
+    private final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Key, Entry> entries;
+        private final Map<String, List<Key>> keysByPrefix = new HashMap<>(); // For prefix-path invalidation
+        private long invalidationCount; // Guarded by lock; lets a slow load detect it raced an invalidation
+
+        private Segment(int capacity) {
+            // Access order: the eldest entry is the least recently used one
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                    if (size() <= capacity) {
+                        return false;
+                    }
+                    unindex(eldest.getKey());
+                    evictions.increment();
+                    return true;
+                }
+            };
+        }
+
+        private void unindex(Key key) {
+            List<Key> keys = keysByPrefix.get(key.prefix);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    keysByPrefix.remove(key.prefix);
+                }
+            }
+        }
+    }
+
+    private static final class Key {
+        private final String prefix;
+        private final String language;
+        private final RankingStrategy strategy;
+        private final int limit;
+
+        private Key(String prefix, String language, RankingStrategy strategy, int limit) {
+            this.prefix = prefix;
+            this.language = language;
+            this.strategy = strategy;
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return limit == other.limit && prefix.equals(other.prefix)
+                    && Objects.equals(language, other.language) && strategy == other.strategy;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(prefix, language, System.identityHashCode(strategy), limit);
+        }
+    }
+
+    private static final class Entry {
+        private final List<String> suggestions;
+        private final long storedAtNanos;
+
+        private Entry(List<String> suggestions, long storedAtNanos) {
+            this.suggestions = suggestions;
+            this.storedAtNanos = storedAtNanos;
+        }
+    }
+}
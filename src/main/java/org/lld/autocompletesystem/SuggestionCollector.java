@@ -0,0 +1,70 @@
+package org.lld.autocompletesystem;
+
+import org.lld.autocompletesystem.strategy.RankingStrategy;
+import org.lld.autocompletesystem.strategy.TopKSelector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Reusable, single-threaded top-K collector over a {@link TrieNode} subtree.
+ * End-of-word nodes are scored in place and offered to a reusable bounded heap,
+ * so collecting creates no strings, entries or lists per candidate; only the
+ * caller's result list grows. Children are visited with HashMap.forEach passing
+ * this collector, which avoids an iterator allocation per node.
+ */
+final class SuggestionCollector implements BiConsumer<Character, TrieNode> {
+
+    private final TopKSelector<TrieNode> selector = new TopKSelector<>(10);
+    private final List<TrieNode> ranked = new ArrayList<>();
+
+    private RankingStrategy strategy;
+    private String prefix;
+    private String language;
+    private int languageBit;
+
+    /**
+     * Append the words of the best maxResults nodes under prefixNode to out, best first.
+     * The strategy must have score keys.
+     */
+    void collect(TrieNode prefixNode, String prefix, String language, RankingStrategy strategy,
+                 int maxResults, List<? super String> out) {
+        this.strategy = strategy;
+        this.prefix = prefix;
+        this.language = language == null || language.isEmpty() ? null : language;
+        this.languageBit = this.language == null ? 0 : LanguageMask.existingBitFor(this.language);
+        selector.reset(maxResults);
+
+        if (this.language == null || languageBit != 0) {
+            visit(prefixNode);
+        }
+
+        selector.drainRanked(ranked);
+        for (TrieNode node : ranked) {
+            out.add(node.getWord());
+        }
+        ranked.clear();
+
+        this.strategy = null;
+        this.prefix = null;
+        this.language = null;
+    }
+
+    @Override
+    public void accept(Character ch, TrieNode child) {
+        visit(child);
+    }
+
+    private void visit(TrieNode node) {
+        if (language != null && (node.getLanguageMask() & languageBit) == 0) {
+            return;
+        }
+
+        if (node.isEndOfWord() && (language == null || language.equals(node.getLanguage()))) {
+            selector.offer(node, node.getWord(), strategy.primaryScore(node), strategy.secondaryScore(node, prefix));
+        }
+
+        node.getChildren().forEach(this);
+    }
+}
@@ -0,0 +1,15 @@
+package org.lld.autocompletesystem;
+
+/**
+ * Node representation used by the autocomplete engine's trie
+ */
+public enum TrieLayout {
+    // One HashMap<Character, TrieNode> per node; supports the per-node top-K cache
+    HASH_MAP,
+    // Sorted char[] children (dense table for large fan-out) and separate leaf records
+    COMPACT,
+    // ConcurrentHashMap children and immutable leaves; the only layout safe to share across threads
+    CONCURRENT,
+    // Read-only path-compressed radix tree in flat arrays, produced by AutoCompleteEngine.freeze()
+    RADIX_SNAPSHOT
+}
@@ -1,27 +1,42 @@
 package org.lld.autocompletesystem;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
-public class TrieNode {
+public class TrieNode implements WordIndex, WordInfo {
 
     private Map<Character,TrieNode> children;
 
     private boolean isEndOfWord;
 
-    // Metadata for end-of-word nodes
-    private AtomicInteger usageCount;
+    // Set when a child is removed; compact() then re-sizes the child map, which never shrinks by itself
+    private boolean childrenShrunk;
+
+    // Metadata for end-of-word nodes; counters are only allocated once a word ends here
+    private LongAdder usageCount;
+    private DecayingCounter decayedUsage;
     private String word;
     private EntryType entryType;
     private String language; // java, python, javascript
+    private long lastUsedMillis;
+    private float score = Float.NaN; // Set by the engine when its strategy has a scoring model
+
+    // Bits of every language with a word in this subtree, see LanguageMask
+    private int languageMask;
+
+    // Ranked top-K end-of-word descendants, only populated when the engine enables caching
+    private List<WordEntry> topEntries;
 
     public TrieNode() {
         this.isEndOfWord = false;
         this.children = new HashMap<>();
-        this.usageCount = new AtomicInteger(0);
     }
 
     // Getters and setters
@@ -37,14 +52,77 @@ public class TrieNode {
         return children;
     }
 
+    @Override
     public int getUsageCount() {
-        return usageCount.get();
+        return usageCount == null ? 0 : (int) Math.min(usageCount.sum(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Usage count with exponential time decay applied, as of now
+     */
+    @Override
+    public double getDecayedUsage() {
+        return decayedUsage == null ? 0.0 : decayedUsage.get(System.currentTimeMillis());
     }
 
     public void incrementUsageCount() {
-        this.usageCount.getAndIncrement();
+        ensureUsageCounters();
+        long now = System.currentTimeMillis();
+        this.usageCount.increment();
+        this.decayedUsage.increment(now);
+        this.lastUsedMillis = now;
+    }
+
+    /**
+     * Add usage recorded elsewhere, e.g. counts carried by a bulk-loaded dictionary
+     */
+    public void addUsage(long count, double decayedCount) {
+        addUsage(count, decayedCount, System.currentTimeMillis());
+    }
+
+    /**
+     * Add usage that happened at atMillis, so the decayed count ages from then on
+     */
+    public void addUsage(long count, double decayedCount, long atMillis) {
+        ensureUsageCounters();
+        this.usageCount.add(count);
+        this.decayedUsage.add(decayedCount, atMillis);
+        this.lastUsedMillis = Math.max(lastUsedMillis, atMillis);
+    }
+
+    /**
+     * Add the usage of an exported entry, whose decayed count is as seen at nowMillis. Its own
+     * last use is kept, rather than the load time, and 0 leaves the node's recency unchanged.
+     */
+    public void loadUsage(WordInfo entry, long nowMillis) {
+        ensureUsageCounters();
+        this.usageCount.add(entry.getUsageCount());
+        this.decayedUsage.add(entry.getDecayedUsage(), nowMillis);
+        this.lastUsedMillis = Math.max(lastUsedMillis, entry.getLastUsedMillis());
+    }
+
+    @Override
+    public long getLastUsedMillis() {
+        return lastUsedMillis;
     }
 
+    @Override
+    public float getScore() {
+        return score;
+    }
+
+    public void setScore(float score) {
+        this.score = score;
+    }
+
+    private void ensureUsageCounters() {
+        if (usageCount == null) {
+            usageCount = new LongAdder();
+            decayedUsage = new DecayingCounter();
+        }
+    }
+
+    @Override
     public String getWord() {
         return word;
     }
@@ -53,6 +131,7 @@ public class TrieNode {
         this.word = word;
     }
 
+    @Override
     public EntryType getEntryType() {
         return entryType;
     }
@@ -61,6 +140,7 @@ public class TrieNode {
         this.entryType = entryType;
     }
 
+    @Override
     public String getLanguage() {
         return language;
     }
@@ -69,30 +149,190 @@ public class TrieNode {
         this.language = language;
     }
 
+    public int getLanguageMask() {
+        return languageMask;
+    }
+
+    void mergeLanguageMask(int mask) {
+        languageMask |= mask;
+    }
+
+    /**
+     * Snapshot of this end-of-word node as a word entry
+     */
+    public WordEntry toWordEntry() {
+        return new WordEntry(word, entryType, language, getUsageCount(), getDecayedUsage(), lastUsedMillis, score);
+    }
+
+    /**
+     * Cached top-K end-of-word descendants, best first
+     */
+    public List<WordEntry> getTopEntries() {
+        return topEntries == null ? List.of() : topEntries;
+    }
+
+    /**
+     * Offer a word to this node's top-K list, replacing any stale snapshot of the same word
+     */
+    public void offerTopEntry(WordEntry entry, Comparator<WordEntry> order, int capacity) {
+        if (topEntries == null) {
+            topEntries = new ArrayList<>();
+        }
+
+        for (int i = 0; i < topEntries.size(); i++) {
+            if (topEntries.get(i).getWord().equals(entry.getWord())) {
+                topEntries.remove(i);
+                break;
+            }
+        }
+
+        // Lists are tiny (K entries), a linear scan beats a binary search here
+        int position = 0;
+        while (position < topEntries.size() && order.compare(topEntries.get(position), entry) <= 0) {
+            position++;
+        }
+        if (position >= capacity) {
+            return;
+        }
+
+        topEntries.add(position, entry);
+        if (topEntries.size() > capacity) {
+            topEntries.remove(topEntries.size() - 1);
+        }
+    }
+
+    /**
+     * Recompute this node's top-K list from its children's lists and its own word,
+     * assuming the children's lists are up to date
+     */
+    public void rebuildTopEntries(Comparator<WordEntry> order, int capacity) {
+        List<WordEntry> merged = new ArrayList<>();
+        if (isEndOfWord) {
+            merged.add(toWordEntry());
+        }
+        for (TrieNode child : children.values()) {
+            merged.addAll(child.getTopEntries());
+        }
+
+        merged.sort(order);
+        topEntries = new ArrayList<>(merged.subList(0, Math.min(capacity, merged.size())));
+    }
+
+    /**
+     * Recompute every top-K list in this subtree, children first
+     */
+    public void rebuildAllTopEntries(Comparator<WordEntry> order, int capacity) {
+        for (TrieNode child : children.values()) {
+            child.rebuildAllTopEntries(order, capacity);
+        }
+        rebuildTopEntries(order, capacity);
+    }
+
     /**
      * Insert a word into the trie
      */
+    @Override
     public void insert(String word, EntryType entryType, String language) {
+        insertFrom(word, 0, entryType, language);
+    }
+
+    /**
+     * Insert a word whose first offset characters already spell the path to this node;
+     * returns the node the word ends at
+     */
+    public TrieNode insertFrom(String word, int offset, EntryType entryType, String language) {
         TrieNode current = this;
+        int languageBit = LanguageMask.bitFor(language);
+        current.languageMask |= languageBit;
 
         // print ->
         // p
         // r -> p
         // i -> reference of r
-        for (char ch : word.toCharArray()) {
-            current.getChildren().putIfAbsent(ch, new TrieNode());
-            current = current.getChildren().get(ch);
+        for (int i = offset; i < word.length(); i++) {
+            char ch = word.charAt(i);
+            TrieNode child = current.children.get(ch);
+            if (child == null) {
+                child = new TrieNode();
+                current.children.put(ch, child);
+            }
+            current = child;
+            current.languageMask |= languageBit;
         }
 
+        current.ensureUsageCounters();
         current.setEndOfWord(true);
         current.setWord(word);
         current.setEntryType(entryType);
         current.setLanguage(language);
+        return current;
+    }
+
+    /**
+     * Remove a word, dropping nodes left with neither a word nor children and
+     * recomputing the language masks of the nodes that stay
+     */
+    @Override
+    public boolean remove(String word) {
+        List<TrieNode> path = getPath(word);
+        if (path == null || !path.get(path.size() - 1).isEndOfWord) {
+            return false;
+        }
+
+        path.get(path.size() - 1).clearWord();
+        for (int depth = word.length(); depth >= 0; depth--) {
+            TrieNode node = path.get(depth);
+            if (depth > 0 && !node.isEndOfWord && node.children.isEmpty()) {
+                TrieNode parent = path.get(depth - 1);
+                parent.children.remove(word.charAt(depth - 1));
+                parent.childrenShrunk = true;
+            } else {
+                node.recomputeLanguageMask();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Re-size every child map that lost entries; a HashMap keeps its table at peak size otherwise
+     */
+    @Override
+    public void compact() {
+        Deque<TrieNode> stack = new ArrayDeque<>();
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            TrieNode node = stack.pop();
+            if (node.childrenShrunk) {
+                node.children = new HashMap<>(node.children);
+                node.childrenShrunk = false;
+            }
+            stack.addAll(node.children.values());
+        }
+    }
+
+    private void clearWord() {
+        isEndOfWord = false;
+        usageCount = null;
+        decayedUsage = null;
+        lastUsedMillis = 0;
+        score = Float.NaN;
+        word = null;
+        entryType = null;
+        language = null;
+    }
+
+    private void recomputeLanguageMask() {
+        int mask = isEndOfWord ? LanguageMask.existingBitFor(language) : 0;
+        for (TrieNode child : children.values()) {
+            mask |= child.languageMask;
+        }
+        languageMask = mask;
     }
 
     /**
      * Search for a word and increment usage count if found
      */
+    @Override
     public boolean search(String word) {
         TrieNode node = findNode(word);
         if (node != null && node.isEndOfWord()) {
@@ -102,9 +342,20 @@ public class TrieNode {
         return false;
     }
 
+    @Override
+    public boolean addUsage(String word, long count, double decayedCount, long atMillis) {
+        TrieNode node = findNode(word);
+        if (node != null && node.isEndOfWord()) {
+            node.addUsage(count, decayedCount, atMillis);
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Check if any word starts with the given prefix
      */
+    @Override
     public boolean startsWith(String prefix) {
         return findNode(prefix) != null;
     }
@@ -112,40 +363,229 @@ public class TrieNode {
     /**
      * Get all suggestions for a given prefix
      */
+    @Override
     public List<WordEntry> getSuggestions(String prefix) {
-        List<WordEntry> suggestions = new ArrayList<>();
         TrieNode prefixNode = findNode(prefix);
+        return prefixNode != null ? prefixNode.collectSuggestions(prefix, null) : new ArrayList<>();
+    }
+
+    /**
+     * Get suggestions filtered by language.
+     * Subtrees without any word in that language are skipped using the per-node language mask.
+     */
+    @Override
+    public List<WordEntry> getSuggestions(String prefix, String language) {
+        if (language == null || language.isEmpty()) {
+            return getSuggestions(prefix);
+        }
+
+        TrieNode prefixNode = findNode(prefix);
+        return prefixNode != null ? prefixNode.collectSuggestions(prefix, language) : new ArrayList<>();
+    }
 
-        if (prefixNode != null) {
-            collectWords(prefixNode, prefix, suggestions);
+    /**
+     * All words in this node's subtree, where prefix spells the path to this node.
+     * A null or empty language means no language filter.
+     */
+    public List<WordEntry> collectSuggestions(String prefix, String language) {
+        List<WordEntry> suggestions = new ArrayList<>();
+        if (language == null || language.isEmpty()) {
+            collectWords(this, prefix, suggestions);
+            return suggestions;
         }
 
+        int languageBit = LanguageMask.existingBitFor(language);
+        if (languageBit != 0) {
+            collectWords(this, prefix, language, languageBit, suggestions);
+        }
         return suggestions;
     }
 
     /**
-     * Get suggestions filtered by language
+     * Words whose spelling starts within maxEdits (Levenshtein) of the prefix, bucketed by
+     * that distance: result.get(d) holds the words at distance d. The trie is walked with one
+     * edit-distance row per node, pruning a subtree as soon as no cell of its row is within
+     * maxEdits, so only the neighbourhood of the prefix is visited.
      */
-    public List<WordEntry> getSuggestions(String prefix, String language) {
-        List<WordEntry> allSuggestions = getSuggestions(prefix);
+    public List<List<WordEntry>> getFuzzySuggestions(String prefix, int maxEdits, String language) {
+        List<List<WordEntry>> buckets = new ArrayList<>(maxEdits + 1);
+        for (int d = 0; d <= maxEdits; d++) {
+            buckets.add(new ArrayList<>());
+        }
 
-        if (language == null || language.isEmpty()) {
-            return allSuggestions;
+        int languageBit = 0;
+        if (language != null && !language.isEmpty()) {
+            languageBit = LanguageMask.existingBitFor(language);
+            if (languageBit == 0) {
+                return buckets;
+            }
+        } else {
+            language = null;
         }
 
-        return allSuggestions.stream()
-                .filter(entry -> language.equals(entry.getLanguage()))
-                .toList();
+        // Distance between the empty path and each prefix of the query
+        int[] row = new int[prefix.length() + 1];
+        for (int j = 0; j < row.length; j++) {
+            row[j] = j;
+        }
+        collectFuzzy(this, prefix, row, row[prefix.length()], maxEdits, language, languageBit, buckets);
+        return buckets;
     }
 
-    private TrieNode findNode(String word) {
+    /**
+     * @param row  edit distances between the path to node and each prefix of the query
+     * @param best smallest distance between the whole query and any prefix of the path so far
+     */
+    private void collectFuzzy(TrieNode node, String prefix, int[] row, int best, int maxEdits,
+                              String language, int languageBit, List<List<WordEntry>> buckets) {
+        if (language != null && (node.languageMask & languageBit) == 0) {
+            return;
+        }
+
+        if (node.isEndOfWord() && best <= maxEdits && (language == null || language.equals(node.getLanguage()))) {
+            buckets.get(best).add(node.toWordEntry());
+        }
+
+        int minInRow = Integer.MAX_VALUE;
+        for (int cost : row) {
+            minInRow = Math.min(minInRow, cost);
+        }
+        if (best <= maxEdits && minInRow >= best) {
+            // Going deeper cannot lower the distance any more: take the whole subtree as is
+            for (TrieNode child : node.getChildren().values()) {
+                collectAtDistance(child, best, language, languageBit, buckets);
+            }
+            return;
+        }
+
+        int columns = row.length;
+        for (Map.Entry<Character, TrieNode> entry : node.getChildren().entrySet()) {
+            char ch = entry.getKey();
+            int[] next = new int[columns];
+            next[0] = row[0] + 1;
+            int nextMin = next[0];
+            for (int j = 1; j < columns; j++) {
+                int substitution = row[j - 1] + (prefix.charAt(j - 1) == ch ? 0 : 1);
+                next[j] = Math.min(substitution, Math.min(row[j] + 1, next[j - 1] + 1));
+                nextMin = Math.min(nextMin, next[j]);
+            }
+
+            int nextBest = Math.min(best, next[columns - 1]);
+            if (nextMin <= maxEdits || nextBest <= maxEdits) {
+                collectFuzzy(entry.getValue(), prefix, next, nextBest, maxEdits, language, languageBit, buckets);
+            }
+        }
+    }
+
+    private void collectAtDistance(TrieNode node, int distance, String language, int languageBit,
+                                   List<List<WordEntry>> buckets) {
+        if (language != null && (node.languageMask & languageBit) == 0) {
+            return;
+        }
+        if (node.isEndOfWord() && (language == null || language.equals(node.getLanguage()))) {
+            buckets.get(distance).add(node.toWordEntry());
+        }
+        for (TrieNode child : node.getChildren().values()) {
+            collectAtDistance(child, distance, language, languageBit, buckets);
+        }
+    }
+
+    /**
+     * Visit every end-of-word node in this subtree
+     */
+    public void forEachWordNode(Consumer<TrieNode> action) {
+        Deque<TrieNode> stack = new ArrayDeque<>();
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            TrieNode node = stack.pop();
+            if (node.isEndOfWord) {
+                action.accept(node);
+            }
+            stack.addAll(node.getChildren().values());
+        }
+    }
+
+    /**
+     * Estimated bytes of this node and its subtree: the node itself, its usage counters,
+     * its HashMap with table and entries, and the top-K list if caching is enabled
+     */
+    @Override
+    public long estimateMemoryBytes() {
+        long bytes = 0;
+        Deque<TrieNode> stack = new ArrayDeque<>();
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            TrieNode node = stack.pop();
+            // header + children + isEndOfWord + childrenShrunk + usageCount + decayedUsage + word + entryType
+            // + language + lastUsedMillis + score + languageMask + topEntries
+            bytes += MemoryEstimates.align(MemoryEstimates.OBJECT_HEADER + 4 + 1 + 1 + 4 + 4 + 4 + 4 + 4 + 8 + 4 + 4 + 4);
+            if (node.usageCount != null) {
+                bytes += 32 // LongAdder without contention cells
+                        + MemoryEstimates.align(MemoryEstimates.OBJECT_HEADER + 8 + 4) // DecayingCounter
+                        + MemoryEstimates.align(MemoryEstimates.OBJECT_HEADER + 8 + 4) // its State
+                        + 32; // and the State's DoubleAdder
+            }
+            bytes += estimateHashMapBytes(node.getChildren());
+            if (node.topEntries != null) {
+                bytes += MemoryEstimates.align(MemoryEstimates.OBJECT_HEADER + 4 + 4 + 4) // ArrayList
+                        + MemoryEstimates.referenceArray(node.topEntries.size());
+            }
+            stack.addAll(node.getChildren().values());
+        }
+        return bytes;
+    }
+
+    private static long estimateHashMapBytes(Map<Character, TrieNode> map) {
+        // header + table, entrySet, keySet, values + size, modCount, threshold + loadFactor
+        long bytes = MemoryEstimates.align(MemoryEstimates.OBJECT_HEADER + 4 * 4 + 3 * 4 + 4);
+        if (map.isEmpty()) {
+            return bytes; // The table is allocated lazily on the first put
+        }
+
+        int capacity = 16;
+        while (map.size() > capacity * 3 / 4) {
+            capacity *= 2;
+        }
+        bytes += MemoryEstimates.referenceArray(capacity);
+
+        // header + hash + key + value + next
+        long entryBytes = MemoryEstimates.align(MemoryEstimates.OBJECT_HEADER + 4 + 4 + 4 + 4);
+        for (Character key : map.keySet()) {
+            bytes += entryBytes;
+            if (key > 127) {
+                bytes += MemoryEstimates.align(MemoryEstimates.OBJECT_HEADER + 2); // Uncached boxed Character
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Nodes visited while spelling the word, starting with this node; null if the path does not exist
+     */
+    public List<TrieNode> getPath(String word) {
+        List<TrieNode> path = new ArrayList<>(word.length() + 1);
         TrieNode current = this;
+        path.add(current);
 
         for (char ch : word.toCharArray()) {
-            if (!current.getChildren().containsKey(ch)) {
+            current = current.getChildren().get(ch);
+            if (current == null) {
+                return null;
+            }
+            path.add(current);
+        }
+
+        return path;
+    }
+
+    public TrieNode findNode(String word) {
+        TrieNode current = this;
+
+        for (int i = 0; i < word.length(); i++) {
+            current = current.getChildren().get(word.charAt(i));
+            if (current == null) {
                 return null;
             }
-            current = current.getChildren().get(ch);
         }
 
         return current;
@@ -158,7 +598,10 @@ public class TrieNode {
                     currentWord,
                     node.getEntryType(),
                     node.getLanguage(),
-                    node.getUsageCount()
+                    node.getUsageCount(),
+                    node.getDecayedUsage(),
+                    node.getLastUsedMillis(),
+                    node.getScore()
             ));
         }
 
@@ -167,5 +610,28 @@ public class TrieNode {
         }
     }
 
+    private void collectWords(TrieNode node, String currentWord, String language, int languageBit,
+                              List<WordEntry> suggestions) {
+        if ((node.languageMask & languageBit) == 0) {
+            return; // No word in this language below here
+        }
+
+        if (node.isEndOfWord() && language.equals(node.getLanguage())) {
+            suggestions.add(new WordEntry(
+                    currentWord,
+                    node.getEntryType(),
+                    node.getLanguage(),
+                    node.getUsageCount(),
+                    node.getDecayedUsage(),
+                    node.getLastUsedMillis(),
+                    node.getScore()
+            ));
+        }
+
+        for (Map.Entry<Character, TrieNode> entry : node.getChildren().entrySet()) {
+            collectWords(entry.getValue(), currentWord + entry.getKey(), language, languageBit, suggestions);
+        }
+    }
+
 
 }
@@ -0,0 +1,541 @@
+package org.lld.autocompletesystem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of learned usage counts, so personalization survives a restart.
+ * Recording a use only bumps the word's counter in an in-memory map of pending increments; a
+ * background thread drains the counters every flush interval and appends all of it as one
+ * batch with a single write and a single force (group commit), so repeated uses of a word
+ * within an interval cost one entry. Once the journal grows past a threshold it is folded
+ * into a snapshot of per-word counts and started afresh.
+ * <p>
+ * Both files live in one directory and are read as streams on start-up:
+ * <pre>
+ * usage.snapshot  magic "ACUS", version, generation, snapshotMillis, wordCount,
+ *                 wordCount x (int byteLength, UTF-8 bytes, long count, double decayedCount)
+ * usage.journal   magic "ACUJ", version, generation,
+ *                 batches of (int bodyLength, int crc32, long millis, int entryCount,
+ *                             entryCount x (int byteLength, UTF-8 bytes, long count))
+ * </pre>
+ * A snapshot is written to a temporary file and renamed into place, then the journal is
+ * reset to the snapshot's generation; a journal of an older generation is already part of
+ * the snapshot. A batch torn by a crash fails its length or CRC check and is cut off, so at
+ * most the last flush interval of usage is lost.
+ */
+public class UsageJournal implements AutoCloseable {
+
+    public static final int JOURNAL_MAGIC = 0x4143554A; // "ACUJ"
+    public static final int SNAPSHOT_MAGIC = 0x41435553; // "ACUS"
+    public static final int VERSION = 1;
+    public static final long DEFAULT_SNAPSHOT_BYTES = 4L << 20;
+
+    static final String JOURNAL_FILE = "usage.journal";
+    static final String SNAPSHOT_FILE = "usage.snapshot";
+
+    private static final int JOURNAL_HEADER_BYTES = 2 * Integer.BYTES + Long.BYTES;
+    private static final int BATCH_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int MAX_BATCH_ENTRIES = 4096;
+    private static final int MAX_BATCH_BYTES = 16 << 20; // Anything longer is a torn length field
+    private static final double HALF_LIFE_MILLIS = DecayingCounter.DEFAULT_HALF_LIFE.toMillis();
+
+    /**
+     * Receives restored usage while a journal is replayed
+     */
+    @FunctionalInterface
+    interface UsageSink {
+        void addUsage(String word, long count, double decayedCount, long atMillis);
+    }
+
+    private final Path journalPath;
+    private final Path snapshotPath;
+    private final long snapshotBytes;
+    // One striped counter per word ever recorded; drained counters stay so a hot word's
+    // increments never contend on re-inserting its map entry
+    private final ConcurrentHashMap<String, LongAdder> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock(); // Serializes flushes, snapshots and close
+    private final ScheduledExecutorService flusher;
+
+    // Guarded by writeLock
+    private final FileChannel journal;
+    private long generation;
+    private boolean closed;
+    private volatile IOException failure; // Set while background flushes fail
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder writtenEntries = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder snapshots = new LongAdder();
+    private volatile long replayedEntries;
+
+    private UsageJournal(Path directory, long snapshotBytes) throws IOException {
+        this.journalPath = directory.resolve(JOURNAL_FILE);
+        this.snapshotPath = directory.resolve(SNAPSHOT_FILE);
+        this.snapshotBytes = snapshotBytes;
+        Files.createDirectories(directory);
+        this.journal = FileChannel.open(journalPath, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "autocomplete-usage-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Open the journal in directory, replaying its snapshot and journal into sink, and start
+     * flushing recorded usage every flushInterval
+     */
+    static UsageJournal open(Path directory, Duration flushInterval, long snapshotBytes, UsageSink sink)
+            throws IOException {
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("flushInterval must be positive");
+        }
+        if (snapshotBytes <= JOURNAL_HEADER_BYTES) {
+            throw new IllegalArgumentException("snapshotBytes must exceed the journal header");
+        }
+
+        UsageJournal usageJournal = new UsageJournal(directory, snapshotBytes);
+        try {
+            usageJournal.recover(sink);
+        } catch (IOException | RuntimeException e) {
+            usageJournal.journal.close();
+            usageJournal.flusher.shutdownNow();
+            throw e;
+        }
+        long intervalNanos = flushInterval.toNanos();
+        usageJournal.flusher.scheduleWithFixedDelay(usageJournal::backgroundFlush,
+                intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        return usageJournal;
+    }
+
+    /**
+     * Note one use of word; never blocks on I/O. Uses recorded after close are not persisted.
+     */
+    void record(String word) {
+        recorded.increment();
+        pending.computeIfAbsent(word, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Append everything recorded so far and force it to disk, rather than waiting for the next
+     * scheduled flush
+     */
+    public void flush() throws IOException {
+        writeLock.lock();
+        try {
+            checkOpen();
+            writePending();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Fold the journal into a new snapshot and start an empty journal
+     */
+    public void checkpoint() throws IOException {
+        writeLock.lock();
+        try {
+            checkOpen();
+            writePending();
+            writeSnapshot();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Stop the background flusher and write what is still pending
+     */
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                writePending();
+            } finally {
+                journal.close();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Uses recorded since the journal was opened
+     */
+    public long getRecordedCount() {
+        return recorded.sum();
+    }
+
+    /**
+     * Entries appended to the journal; fewer than recorded uses when a word is used
+     * more than once within a flush interval
+     */
+    public long getWrittenEntryCount() {
+        return writtenEntries.sum();
+    }
+
+    /**
+     * Group commits: one write and one force each
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    public long getSnapshotCount() {
+        return snapshots.sum();
+    }
+
+    /**
+     * Snapshot and journal entries applied when the journal was opened
+     */
+    public long getReplayedEntryCount() {
+        return replayedEntries;
+    }
+
+    public int getPendingWordCount() {
+        int count = 0;
+        for (LongAdder adder : pending.values()) {
+            if (adder.sum() > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Error of the last background flush, or null once a flush succeeds again. A failed
+     * flush keeps its counts pending, so they are retried.
+     */
+    public IOException getFlushFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d uses -> %d entries in %d batches, %d snapshots, %d replayed, %d pending",
+                getRecordedCount(), getWrittenEntryCount(), getBatchCount(), getSnapshotCount(),
+                getReplayedEntryCount(), getPendingWordCount());
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Usage journal is closed");
+        }
+    }
+
+    private void backgroundFlush() {
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            writePending();
+            if (journal.size() >= snapshotBytes) {
+                writeSnapshot();
+            }
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Drain the pending counters into batches and append them with one write and one force.
+     * Increments that race a word's drain stay in its counter for the next flush.
+     */
+    private void writePending() throws IOException {
+        Map<String, Long> drained = new HashMap<>();
+        pending.forEach((word, adder) -> {
+            long count = adder.sumThenReset();
+            if (count > 0) {
+                drained.put(word, count);
+            }
+        });
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        List<ByteBuffer> buffers = new ArrayList<>();
+        long millis = System.currentTimeMillis();
+        List<byte[]> words = new ArrayList<>(Math.min(drained.size(), MAX_BATCH_ENTRIES));
+        List<Long> counts = new ArrayList<>(words.size());
+        for (Map.Entry<String, Long> entry : drained.entrySet()) {
+            words.add(entry.getKey().getBytes(StandardCharsets.UTF_8));
+            counts.add(entry.getValue());
+            if (words.size() == MAX_BATCH_ENTRIES) {
+                buffers.add(encodeBatch(millis, words, counts));
+                words.clear();
+                counts.clear();
+            }
+        }
+        if (!words.isEmpty()) {
+            buffers.add(encodeBatch(millis, words, counts));
+        }
+
+        long end = journal.size();
+        try {
+            long position = end;
+            for (ByteBuffer buffer : buffers) {
+                while (buffer.hasRemaining()) {
+                    position += journal.write(buffer, position);
+                }
+            }
+            journal.force(false);
+        } catch (IOException e) {
+            // Keep the counts for the next attempt and drop whatever part of the batch was written
+            drained.forEach((word, count) -> pending.computeIfAbsent(word, key -> new LongAdder()).add(count));
+            journal.truncate(end);
+            throw e;
+        }
+        writtenEntries.add(drained.size());
+        batches.add(buffers.size());
+        failure = null;
+    }
+
+    private static ByteBuffer encodeBatch(long millis, List<byte[]> words, List<Long> counts) {
+        int bodyLength = Long.BYTES + Integer.BYTES;
+        for (byte[] word : words) {
+            bodyLength += Integer.BYTES + word.length + Long.BYTES;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(BATCH_HEADER_BYTES + bodyLength);
+        buffer.putInt(bodyLength).putInt(0); // CRC is filled in once the body is written
+        buffer.putLong(millis).putInt(words.size());
+        for (int i = 0; i < words.size(); i++) {
+            buffer.putInt(words.get(i).length).put(words.get(i)).putLong(counts.get(i));
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), BATCH_HEADER_BYTES, bodyLength);
+        buffer.putInt(Integer.BYTES, (int) crc.getValue());
+        return buffer.flip();
+    }
+
+    /**
+     * Stream the snapshot and the journal into sink, cut off a torn last batch and
+     * leave the journal ready for appending
+     */
+    private void recover(UsageSink sink) throws IOException {
+        long[] replayed = new long[1];
+        UsageSink counting = (word, count, decayedCount, atMillis) -> {
+            replayed[0]++;
+            sink.addUsage(word, count, decayedCount, atMillis);
+        };
+
+        long snapshotGeneration = Files.exists(snapshotPath) ? readSnapshot(counting) : 0;
+        long journalGeneration = readJournalGeneration();
+        if (journalGeneration >= snapshotGeneration) {
+            generation = journalGeneration;
+            long validEnd = readBatches(counting);
+            if (journal.size() > validEnd) {
+                journal.truncate(validEnd);
+                journal.force(false);
+            }
+        } else {
+            // A crash after renaming the snapshot left the journal it already contains
+            generation = snapshotGeneration;
+            resetJournal();
+        }
+        replayedEntries = replayed[0];
+    }
+
+    /**
+     * Generation in the journal header, writing a fresh header if the file is new or too
+     * short to hold one
+     */
+    private long readJournalGeneration() throws IOException {
+        if (journal.size() < JOURNAL_HEADER_BYTES) {
+            generation = 0;
+            resetJournal();
+            return 0;
+        }
+        ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER_BYTES);
+        while (header.hasRemaining()) {
+            journal.read(header, header.position()); // Buffer and file offsets coincide at the start
+        }
+        header.flip();
+        if (header.getInt() != JOURNAL_MAGIC) {
+            throw new IOException("Not a usage journal: " + journalPath);
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported usage journal version " + version + " in " + journalPath);
+        }
+        return header.getLong();
+    }
+
+    /**
+     * Apply every intact batch; returns the offset just past the last one
+     */
+    private long readBatches(UsageSink sink) throws IOException {
+        long validEnd = JOURNAL_HEADER_BYTES;
+        InputStream stream = Channels.newInputStream(journal.position(JOURNAL_HEADER_BYTES));
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 64 * 1024));
+        CRC32 crc = new CRC32();
+        byte[] body = new byte[256];
+        while (true) {
+            int bodyLength;
+            int expectedCrc;
+            try {
+                bodyLength = in.readInt();
+                expectedCrc = in.readInt();
+                if (bodyLength < Long.BYTES + Integer.BYTES || bodyLength > MAX_BATCH_BYTES) {
+                    return validEnd;
+                }
+                if (body.length < bodyLength) {
+                    body = new byte[Math.max(bodyLength, body.length * 2)];
+                }
+                in.readFully(body, 0, bodyLength);
+            } catch (EOFException e) {
+                return validEnd; // Clean end, or a batch torn by a crash
+            }
+
+            crc.reset();
+            crc.update(body, 0, bodyLength);
+            if ((int) crc.getValue() != expectedCrc) {
+                return validEnd;
+            }
+
+            ByteBuffer batch = ByteBuffer.wrap(body, 0, bodyLength);
+            long millis = batch.getLong();
+            int entryCount = batch.getInt();
+            for (int i = 0; i < entryCount; i++) {
+                int length = batch.getInt();
+                String word = new String(body, batch.position(), length, StandardCharsets.UTF_8);
+                batch.position(batch.position() + length);
+                long count = batch.getLong();
+                sink.addUsage(word, count, count, millis);
+            }
+            validEnd += BATCH_HEADER_BYTES + bodyLength;
+        }
+    }
+
+    /**
+     * Apply every snapshot entry; returns the snapshot's generation
+     */
+    private long readSnapshot(UsageSink sink) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(snapshotPath), 64 * 1024))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a usage snapshot: " + snapshotPath);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported usage snapshot version " + version + " in " + snapshotPath);
+            }
+            long snapshotGeneration = in.readLong();
+            long snapshotMillis = in.readLong();
+            int wordCount = in.readInt();
+            byte[] encoded = new byte[64];
+            for (int i = 0; i < wordCount; i++) {
+                int length = in.readInt();
+                if (encoded.length < length) {
+                    encoded = new byte[Math.max(length, encoded.length * 2)];
+                }
+                in.readFully(encoded, 0, length);
+                String word = new String(encoded, 0, length, StandardCharsets.UTF_8);
+                sink.addUsage(word, in.readLong(), in.readDouble(), snapshotMillis);
+            }
+            return snapshotGeneration;
+        } catch (EOFException e) {
+            throw new IOException("Truncated usage snapshot: " + snapshotPath, e);
+        }
+    }
+
+    /**
+     * Merge the current snapshot and journal into the next generation's snapshot, then empty
+     * the journal. Decayed counts are aged to the new snapshot's time.
+     */
+    private void writeSnapshot() throws IOException {
+        long snapshotMillis = System.currentTimeMillis();
+        Map<String, Totals> totals = new HashMap<>();
+        UsageSink merge = (word, count, decayedCount, atMillis) -> {
+            Totals total = totals.computeIfAbsent(word, w -> new Totals());
+            total.count += count;
+            total.decayedCount += decayedCount * Math.pow(2.0, -(snapshotMillis - atMillis) / HALF_LIFE_MILLIS);
+        };
+        if (Files.exists(snapshotPath)) {
+            readSnapshot(merge);
+        }
+        readBatches(merge);
+
+        Path temporary = snapshotPath.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation + 1);
+            out.writeLong(snapshotMillis);
+            out.writeInt(totals.size());
+            for (Map.Entry<String, Totals> entry : totals.entrySet()) {
+                byte[] encoded = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(encoded.length);
+                out.write(encoded);
+                out.writeLong(entry.getValue().count);
+                out.writeDouble(entry.getValue().decayedCount);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        generation++;
+        resetJournal();
+        snapshots.increment();
+    }
+
+    /**
+     * Truncate the journal to a header for the current generation
+     */
+    private void resetJournal() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER_BYTES);
+        header.putInt(JOURNAL_MAGIC).putInt(VERSION).putLong(generation).flip();
+        journal.truncate(0);
+        while (header.hasRemaining()) {
+            journal.write(header, header.position()); // Buffer and file offsets coincide at the start
+        }
+        journal.force(false);
+    }
+
+    private static final class Totals {
+        private long count;
+        private double decayedCount;
+    }
+}
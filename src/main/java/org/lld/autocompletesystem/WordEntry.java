@@ -1,34 +1,68 @@
 package org.lld.autocompletesystem;
 
-public class WordEntry {
+public class WordEntry implements WordInfo {
     private final String word;
     private final EntryType entryType;
     private final String language;
     private final int usageCount;
+    private final double decayedUsage; // Time-decayed popularity, see DecayingCounter
+    private final long lastUsedMillis;
+    private final float score; // Precomputed by a scoring model, NaN if none
 
     public WordEntry(String word, EntryType entryType, String language, int usageCount) {
+        this(word, entryType, language, usageCount, usageCount);
+    }
+
+    public WordEntry(String word, EntryType entryType, String language, int usageCount, double decayedUsage) {
+        this(word, entryType, language, usageCount, decayedUsage, 0L, Float.NaN);
+    }
+
+    public WordEntry(String word, EntryType entryType, String language, int usageCount, double decayedUsage,
+                     long lastUsedMillis, float score) {
         this.word = word;
         this.entryType = entryType;
         this.language = language;
         this.usageCount = usageCount;
+        this.decayedUsage = decayedUsage;
+        this.lastUsedMillis = lastUsedMillis;
+        this.score = score;
     }
 
+    @Override
     public String getWord() {
         return word;
     }
 
+    @Override
     public EntryType getEntryType() {
         return entryType;
     }
 
+    @Override
     public String getLanguage() {
         return language;
     }
 
+    @Override
     public int getUsageCount() {
         return usageCount;
     }
 
+    @Override
+    public double getDecayedUsage() {
+        return decayedUsage;
+    }
+
+    @Override
+    public long getLastUsedMillis() {
+        return lastUsedMillis;
+    }
+
+    @Override
+    public float getScore() {
+        return score;
+    }
+
     @Override
     public String toString() {
         return String.format("%s (%s, %s, usage: %d)",
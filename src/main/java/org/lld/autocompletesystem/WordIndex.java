@@ -0,0 +1,59 @@
+package org.lld.autocompletesystem;
+
+import java.util.List;
+
+/**
+ * Storage behind the autocomplete engine: maps words to their metadata and
+ * answers prefix queries. Implementations differ in memory layout only.
+ */
+public interface WordIndex {
+
+    /**
+     * Insert a word, replacing the metadata of an existing entry
+     */
+    void insert(String word, EntryType entryType, String language);
+
+    /**
+     * Remove a word and prune the branches left without words; returns false if it was not present
+     */
+    boolean remove(String word);
+
+    /**
+     * Release capacity left over after removals. Layouts without slack keep this no-op.
+     */
+    default void compact() {
+    }
+
+    /**
+     * Search for a word and increment usage count if found
+     */
+    boolean search(String word);
+
+    /**
+     * Add usage recorded elsewhere, e.g. replayed from a usage journal, as if it happened at
+     * atMillis; returns false if the word is not present
+     */
+    boolean addUsage(String word, long count, double decayedCount, long atMillis);
+
+    /**
+     * Check if any word starts with the given prefix
+     */
+    boolean startsWith(String prefix);
+
+    /**
+     * Get all suggestions for a given prefix
+     */
+    List<WordEntry> getSuggestions(String prefix);
+
+    /**
+     * Get suggestions filtered by language
+     */
+    List<WordEntry> getSuggestions(String prefix, String language);
+
+    /**
+     * Estimated heap bytes held by the index structure itself, excluding the word
+     * and language strings which every layout shares with the caller.
+     * Assumes a 64-bit JVM with compressed oops (12 byte headers, 4 byte references).
+     */
+    long estimateMemoryBytes();
+}
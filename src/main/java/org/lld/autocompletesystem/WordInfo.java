@@ -0,0 +1,28 @@
+package org.lld.autocompletesystem;
+
+/**
+ * Read-only view of a word's metadata, implemented both by {@link WordEntry} snapshots and
+ * directly by end-of-word {@link TrieNode}s so strategies can score nodes without copying them
+ */
+public interface WordInfo {
+    String getWord();
+
+    EntryType getEntryType();
+
+    String getLanguage();
+
+    int getUsageCount();
+
+    double getDecayedUsage();
+
+    /**
+     * Time of the most recent recorded use in epoch millis, 0 if never used or not tracked
+     */
+    long getLastUsedMillis();
+
+    /**
+     * Score precomputed by the engine's {@link org.lld.autocompletesystem.strategy.ScoringModel},
+     * NaN if none was computed
+     */
+    float getScore();
+}
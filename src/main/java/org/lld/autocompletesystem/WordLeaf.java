@@ -0,0 +1,53 @@
+package org.lld.autocompletesystem;
+
+/**
+ * End-of-word metadata for the compact trie, allocated only for nodes that end a word
+ */
+public class WordLeaf {
+    private final String word;
+    private EntryType entryType;
+    private String language;
+    private long usageCount; // long like the other layouts' counters, so a hot word cannot wrap negative
+
+    public WordLeaf(String word, EntryType entryType, String language) {
+        this.word = word;
+        this.entryType = entryType;
+        this.language = language;
+    }
+
+    public String getWord() {
+        return word;
+    }
+
+    public EntryType getEntryType() {
+        return entryType;
+    }
+
+    public void setEntryType(EntryType entryType) {
+        this.entryType = entryType;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
+    public int getUsageCount() {
+        return (int) Math.min(usageCount, Integer.MAX_VALUE);
+    }
+
+    public void incrementUsageCount() {
+        usageCount++;
+    }
+
+    public void addUsage(long count) {
+        usageCount = usageCount + count < 0 ? Long.MAX_VALUE : usageCount + count;
+    }
+
+    public WordEntry toWordEntry() {
+        return new WordEntry(word, entryType, language, getUsageCount());
+    }
+}
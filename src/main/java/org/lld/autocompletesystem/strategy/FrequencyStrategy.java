@@ -1,21 +1,63 @@
 package org.lld.autocompletesystem.strategy;
 
 import org.lld.autocompletesystem.WordEntry;
+import org.lld.autocompletesystem.WordInfo;
 
 import java.util.Comparator;
 import java.util.List;
 
 public class FrequencyStrategy implements RankingStrategy{
+    private final boolean decayed;
+
+    public FrequencyStrategy() {
+        this(false);
+    }
+
+    /**
+     * @param decayed rank by time-decayed usage instead of the all-time usage count,
+     *                so words that were popular long ago stop dominating
+     */
+    public FrequencyStrategy(boolean decayed) {
+        this.decayed = decayed;
+    }
+
     @Override
     public List<WordEntry> rank(List<WordEntry> entries, String prefix) {
         return entries.stream()
                 .sorted(Comparator
-                        .comparingInt(WordEntry::getUsageCount).reversed() // Primary: usage count
+                        .<WordEntry>comparingDouble(this::usageOf).reversed() // Primary: usage
                         //.thenComparing(entry -> calculatePrefixMatch(entry.getWord(), prefix)) // Secondary: prefix match
                         .thenComparing(WordEntry::getWord)) // Tertiary: alphabetical
                 .toList();
     }
 
+    @Override
+    public boolean hasScoreKeys() {
+        return true;
+    }
+
+    @Override
+    public double primaryScore(WordInfo word) {
+        return usageOf(word);
+    }
+
+    /**
+     * Decayed scores are snapshots taken at different times, so they cannot be kept in per-node caches
+     */
+    @Override
+    public Comparator<WordEntry> cacheOrder() {
+        if (decayed) {
+            return null;
+        }
+        return Comparator
+                .comparingInt(WordEntry::getUsageCount).reversed()
+                .thenComparing(WordEntry::getWord);
+    }
+
+    private double usageOf(WordInfo entry) {
+        return decayed ? entry.getDecayedUsage() : entry.getUsageCount();
+    }
+
     /**
      * Calculate how well the word matches the prefix
      * Returns higher score for better matches
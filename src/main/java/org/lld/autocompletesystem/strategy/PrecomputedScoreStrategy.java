@@ -0,0 +1,84 @@
+package org.lld.autocompletesystem.strategy;
+
+import org.lld.autocompletesystem.WordEntry;
+import org.lld.autocompletesystem.WordInfo;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Ranks by the score a {@link ScoringModel} assigned to each word when it last changed, then
+ * alphabetically. With the HASH_MAP layout the engine stores that score in the word's node, so
+ * ranking a candidate is one float comparison however many signals the model combines. Other
+ * layouts keep no scores; their words are scored by the model at query time instead.
+ */
+public class PrecomputedScoreStrategy implements RankingStrategy {
+    private final ScoringModel model;
+
+    public PrecomputedScoreStrategy() {
+        this(new WeightedScoringModel());
+    }
+
+    public PrecomputedScoreStrategy(ScoringModel model) {
+        this.model = model;
+    }
+
+    /**
+     * Scores each entry once, at one instant, before sorting; words without a stored score would
+     * otherwise be scored by the model on every comparison, with the clock moving mid-sort
+     */
+    @Override
+    public List<WordEntry> rank(List<WordEntry> entries, String prefix) {
+        long now = System.currentTimeMillis();
+        Scored[] scored = new Scored[entries.size()];
+        for (int i = 0; i < scored.length; i++) {
+            WordEntry entry = entries.get(i);
+            scored[i] = new Scored(entry, scoreOf(entry, now));
+        }
+        Arrays.sort(scored, Comparator.<Scored>comparingDouble(s -> s.score).reversed()
+                .thenComparing(s -> s.entry.getWord()));
+        return Arrays.stream(scored).map(s -> s.entry).toList();
+    }
+
+    @Override
+    public boolean hasScoreKeys() {
+        return true;
+    }
+
+    @Override
+    public double primaryScore(WordInfo word) {
+        return scoreOf(word, System.currentTimeMillis());
+    }
+
+    /**
+     * Orders top-K lists, which only the HASH_MAP layout keeps and whose entries always carry a
+     * stored score, so the comparison never runs the model
+     */
+    @Override
+    public Comparator<WordEntry> cacheOrder() {
+        return Comparator
+                .<WordEntry>comparingDouble(this::primaryScore).reversed()
+                .thenComparing(WordEntry::getWord);
+    }
+
+    @Override
+    public ScoringModel scoringModel() {
+        return model;
+    }
+
+    private double scoreOf(WordInfo word, long nowMillis) {
+        float score = word.getScore();
+        return Float.isNaN(score) ? model.score(word, nowMillis) : score;
+    }
+
+    private static final class Scored {
+        private final WordEntry entry;
+        private final double score;
+
+        private Scored(WordEntry entry, double score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package org.lld.autocompletesystem.strategy;
 
 import org.lld.autocompletesystem.WordEntry;
+import org.lld.autocompletesystem.WordInfo;
 
+import java.util.Comparator;
 import java.util.List;
 
 public interface RankingStrategy {
@@ -12,4 +14,67 @@ public interface RankingStrategy {
      * @return Ranked list of entries (highest relevance first)
      */
     List<WordEntry> rank(List<WordEntry> entries, String prefix);
+
+    /**
+     * Rank the given word entries and keep only the best ones.
+     * Strategies with score keys select through a bounded heap in O(n log limit).
+     * @param entries List of word entries to rank
+     * @param prefix The search prefix
+     * @param limit Maximum number of entries to return
+     * @return The best limit entries (highest relevance first)
+     */
+    default List<WordEntry> rankTopK(List<WordEntry> entries, String prefix, int limit) {
+        if (!hasScoreKeys()) {
+            return rank(entries, prefix).stream()
+                    .limit(limit)
+                    .toList();
+        }
+
+        TopKSelector<WordEntry> selector = new TopKSelector<>(limit);
+        for (WordEntry entry : entries) {
+            selector.offer(entry, entry.getWord(), primaryScore(entry), secondaryScore(entry, prefix));
+        }
+        return selector.toRankedList();
+    }
+
+    /**
+     * Whether {@link #rank} is equivalent to ordering by primaryScore descending,
+     * then secondaryScore ascending, then word. Such strategies can score words
+     * straight from trie nodes without materializing entries.
+     */
+    default boolean hasScoreKeys() {
+        return false;
+    }
+
+    /**
+     * Main sort key, higher ranks first. Only called when {@link #hasScoreKeys()} is true.
+     */
+    default double primaryScore(WordInfo word) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " has no score keys");
+    }
+
+    /**
+     * Tie-breaking sort key, lower ranks first. Only called when {@link #hasScoreKeys()} is true.
+     */
+    default double secondaryScore(WordInfo word, String prefix) {
+        return 0.0;
+    }
+
+    /**
+     * Prefix-independent order used to keep a ranked top-K list at every trie node.
+     * Must agree with {@link #rank} for any non-empty prefix the entries start with.
+     * @return the cache order, or null if this strategy cannot be cached per node
+     */
+    default Comparator<WordEntry> cacheOrder() {
+        return null;
+    }
+
+    /**
+     * Model the engine evaluates whenever a word or its usage changes, storing the result in the
+     * word's node so ranking only compares {@link WordInfo#getScore()} values
+     * @return the model, or null if this strategy scores words at query time
+     */
+    default ScoringModel scoringModel() {
+        return null;
+    }
 }
@@ -1,6 +1,7 @@
 package org.lld.autocompletesystem.strategy;
 
 import org.lld.autocompletesystem.WordEntry;
+import org.lld.autocompletesystem.WordInfo;
 
 import java.util.Comparator;
 import java.util.List;
@@ -10,16 +11,44 @@ public class RelevanceStrategy implements RankingStrategy{
     public List<WordEntry> rank(List<WordEntry> entries, String prefix) {
         return entries.stream()
                 .sorted(Comparator
-                        .comparingDouble(this::calculateRelevanceScore).reversed() // Primary: relevance score
+                        .<WordEntry>comparingDouble(this::calculateRelevanceScore).reversed() // Primary: relevance score
                         .thenComparing(entry -> calculatePrefixMatch(entry.getWord(), prefix)) // Secondary: prefix match
                         .thenComparing(WordEntry::getWord)) // Tertiary: alphabetical
                 .toList();
     }
 
+    @Override
+    public boolean hasScoreKeys() {
+        return true;
+    }
+
+    @Override
+    public double primaryScore(WordInfo word) {
+        return calculateRelevanceScore(word);
+    }
+
+    @Override
+    public double secondaryScore(WordInfo word, String prefix) {
+        return calculatePrefixMatch(word.getWord(), prefix);
+    }
+
+    /**
+     * Every word under a prefix node starts with that prefix, so the prefix match
+     * ratio (prefix length / word length) only depends on the word length:
+     * ascending prefix match is the same as longest word first.
+     */
+    @Override
+    public Comparator<WordEntry> cacheOrder() {
+        return Comparator
+                .<WordEntry>comparingDouble(this::calculateRelevanceScore).reversed()
+                .thenComparing(Comparator.comparingInt((WordEntry entry) -> entry.getWord().length()).reversed())
+                .thenComparing(WordEntry::getWord);
+    }
+
     /**
      * Calculate overall relevance score combining entry type and prefix match
      */
-    private double calculateRelevanceScore(WordEntry entry) {
+    private double calculateRelevanceScore(WordInfo entry) {
         double typeScore = entry.getEntryType() != null ?
                 entry.getEntryType().getRelevanceScore() : 0.5;
 
@@ -30,22 +59,19 @@ public class RelevanceStrategy implements RankingStrategy{
     }
 
     /**
-     * Calculate how well the word matches the prefix
+     * Calculate how well the word matches the prefix.
+     * Compares case-insensitively in place instead of allocating lowercased copies.
      */
     private double calculatePrefixMatch(String word, String prefix) {
         if (prefix == null || prefix.isEmpty()) {
             return 0.0;
         }
 
-        String lowerWord = word.toLowerCase();
-        String lowerPrefix = prefix.toLowerCase();
-
-        if (lowerWord.equals(lowerPrefix)) {
-            return 1.0; // Exact match
-        } else if (lowerWord.startsWith(lowerPrefix)) {
-            return (double) lowerPrefix.length() / lowerWord.length();
+        if (!word.regionMatches(true, 0, prefix, 0, prefix.length())) {
+            return 0.0;
         }
 
-        return 0.0;
+        // Exact match gives 1.0, otherwise the share of the word the prefix covers
+        return (double) prefix.length() / word.length();
     }
 }
@@ -0,0 +1,25 @@
+package org.lld.autocompletesystem.strategy;
+
+import org.lld.autocompletesystem.WordInfo;
+
+/**
+ * Combines a word's signals into a single score, higher ranks first. Engines evaluate the
+ * model when a word is added or used, not per query, so a model may be as expensive as it
+ * needs to be without slowing suggestions down. A model with time-dependent signals says how
+ * long its scores stay accurate, and engines rescore every word once they are older than that.
+ */
+public interface ScoringModel {
+
+    /**
+     * Score of word as of nowMillis
+     */
+    float score(WordInfo word, long nowMillis);
+
+    /**
+     * How long a score stays close enough to the current one, Long.MAX_VALUE if scores
+     * do not depend on the time
+     */
+    default long scoreLifetimeMillis() {
+        return Long.MAX_VALUE;
+    }
+}
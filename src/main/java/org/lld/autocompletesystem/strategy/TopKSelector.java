@@ -0,0 +1,157 @@
+package org.lld.autocompletesystem.strategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the best K items seen so far in a bounded binary heap backed by parallel arrays.
+ * Items are ordered by precomputed keys: primary score descending, secondary score
+ * ascending, then word alphabetically. Offering an item allocates nothing, and a
+ * selector can be {@link #reset} and reused across queries.
+ */
+public class TopKSelector<T> {
+
+    private Object[] items;
+    private String[] words;
+    private double[] primary;
+    private double[] secondary;
+    private int size;
+    private int limit;
+
+    public TopKSelector(int limit) {
+        reset(limit);
+    }
+
+    /**
+     * Forget all kept items and start a new selection of at most limit items
+     */
+    public void reset(int limit) {
+        int capacity = Math.max(0, limit);
+        if (items == null || items.length < capacity) {
+            items = new Object[capacity];
+            words = new String[capacity];
+            primary = new double[capacity];
+            secondary = new double[capacity];
+        } else {
+            Arrays.fill(items, 0, size, null);
+            Arrays.fill(words, 0, size, null);
+        }
+        this.size = 0;
+        this.limit = capacity;
+    }
+
+    /**
+     * Offer an item with its sort keys, computed once by the caller
+     */
+    public void offer(T item, String word, double primaryScore, double secondaryScore) {
+        if (size < limit) {
+            set(size, item, word, primaryScore, secondaryScore);
+            siftUp(size++);
+        } else if (limit > 0 && compare(primaryScore, secondaryScore, word, 0) < 0) {
+            // Better than the worst kept item at the root: replace it
+            set(0, item, word, primaryScore, secondaryScore);
+            siftDown(0, size);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Append the kept items to out, best first, and empty the selector
+     */
+    @SuppressWarnings("unchecked")
+    public void drainRanked(List<? super T> out) {
+        // In-place heap sort: repeatedly move the worst item to the end
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+        for (int i = 0; i < size; i++) {
+            out.add((T) items[i]);
+        }
+        reset(limit);
+    }
+
+    /**
+     * The kept items, best first
+     */
+    public List<T> toRankedList() {
+        List<T> ranked = new ArrayList<>(size);
+        drainRanked(ranked);
+        return ranked;
+    }
+
+    /**
+     * Negative if the given keys rank before (are better than) the item at index
+     */
+    private int compare(double primaryScore, double secondaryScore, String word, int index) {
+        int result = Double.compare(primary[index], primaryScore);
+        if (result == 0) {
+            result = Double.compare(secondaryScore, secondary[index]);
+        }
+        if (result == 0) {
+            result = word.compareTo(words[index]);
+        }
+        return result;
+    }
+
+    private int compare(int i, int j) {
+        return compare(primary[i], secondary[i], words[i], j);
+    }
+
+    // The root holds the worst item: every parent ranks after its children
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compare(index, parent) <= 0) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index, int heapSize) {
+        while (true) {
+            int worst = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < heapSize && compare(left, worst) > 0) {
+                worst = left;
+            }
+            if (right < heapSize && compare(right, worst) > 0) {
+                worst = right;
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(index, worst);
+            index = worst;
+        }
+    }
+
+    private void set(int index, T item, String word, double primaryScore, double secondaryScore) {
+        items[index] = item;
+        words[index] = word;
+        primary[index] = primaryScore;
+        secondary[index] = secondaryScore;
+    }
+
+    private void swap(int i, int j) {
+        Object item = items[i];
+        items[i] = items[j];
+        items[j] = item;
+        String word = words[i];
+        words[i] = words[j];
+        words[j] = word;
+        double p = primary[i];
+        primary[i] = primary[j];
+        primary[j] = p;
+        double s = secondary[i];
+        secondary[i] = secondary[j];
+        secondary[j] = s;
+    }
+}
@@ -0,0 +1,73 @@
+package org.lld.autocompletesystem.strategy;
+
+import org.lld.autocompletesystem.WordInfo;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Weighted sum of four signals:
+ * <ul>
+ *   <li>type: {@link org.lld.autocompletesystem.EntryType#getRelevanceScore()}, 0.5 if unknown;</li>
+ *   <li>usage: log(1 + decayed usage), so heavy use keeps helping without drowning the rest;</li>
+ *   <li>recency: 1 right after a use, halving every recency half-life;</li>
+ *   <li>language affinity: a fixed bonus per language, e.g. for the user's main languages.</li>
+ * </ul>
+ * Weights must not be negative, so a use never lowers a word's score at the time it happens.
+ */
+public class WeightedScoringModel implements ScoringModel {
+
+    public static final Duration DEFAULT_RECENCY_HALF_LIFE = Duration.ofHours(1);
+
+    private final double typeWeight;
+    private final double usageWeight;
+    private final double recencyWeight;
+    private final double recencyHalfLifeMillis;
+    private final Map<String, Double> languageAffinity;
+
+    /**
+     * Type first, then usage, with a nudge for words used in the last hour or so
+     */
+    public WeightedScoringModel() {
+        this(1.0, 0.25, 0.5, DEFAULT_RECENCY_HALF_LIFE, Map.of());
+    }
+
+    public WeightedScoringModel(double typeWeight, double usageWeight, double recencyWeight,
+                                Duration recencyHalfLife, Map<String, Double> languageAffinity) {
+        if (typeWeight < 0 || usageWeight < 0 || recencyWeight < 0) {
+            throw new IllegalArgumentException("Weights must not be negative");
+        }
+        if (recencyHalfLife.isZero() || recencyHalfLife.isNegative()) {
+            throw new IllegalArgumentException("recencyHalfLife must be positive");
+        }
+        for (double affinity : languageAffinity.values()) {
+            if (affinity < 0) {
+                throw new IllegalArgumentException("Language affinities must not be negative");
+            }
+        }
+        this.typeWeight = typeWeight;
+        this.usageWeight = usageWeight;
+        this.recencyWeight = recencyWeight;
+        this.recencyHalfLifeMillis = recencyHalfLife.toMillis();
+        this.languageAffinity = Map.copyOf(languageAffinity);
+    }
+
+    @Override
+    public float score(WordInfo word, long nowMillis) {
+        double type = word.getEntryType() != null ? word.getEntryType().getRelevanceScore() : 0.5;
+        double usage = Math.log1p(word.getDecayedUsage());
+        double recency = word.getLastUsedMillis() == 0 ? 0.0
+                : Math.pow(2.0, -Math.max(0, nowMillis - word.getLastUsedMillis()) / recencyHalfLifeMillis);
+        double affinity = word.getLanguage() == null ? 0.0 : languageAffinity.getOrDefault(word.getLanguage(), 0.0);
+        return (float) (typeWeight * type + usageWeight * usage + recencyWeight * recency + affinity);
+    }
+
+    /**
+     * An eighth of the half-life, so a stored recency term is off by at most about 8% of its
+     * weight; usage decays at the same rate for every word and does not reorder them
+     */
+    @Override
+    public long scoreLifetimeMillis() {
+        return recencyWeight == 0 ? Long.MAX_VALUE : Math.max(1L, (long) (recencyHalfLifeMillis / 8));
+    }
+}
@@ -1,11 +1,19 @@
 package org.lld.autocompletesystem.test;
 
 import org.lld.autocompletesystem.AutoCompleteEngine;
+import org.lld.autocompletesystem.AutoCompleteSession;
+import org.lld.autocompletesystem.DecayingCounter;
 import org.lld.autocompletesystem.EntryType;
+import org.lld.autocompletesystem.QueryCursor;
+import org.lld.autocompletesystem.TrieLayout;
 import org.lld.autocompletesystem.strategy.FrequencyStrategy;
+import org.lld.autocompletesystem.strategy.PrecomputedScoreStrategy;
 import org.lld.autocompletesystem.strategy.RelevanceStrategy;
+import org.lld.autocompletesystem.strategy.WeightedScoringModel;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 
 public class AutoCompleteEngineDemo {
     public static void main(String[] args) {
@@ -23,6 +31,30 @@ public class AutoCompleteEngineDemo {
         // Demo 4: Usage tracking
         demonstrateUsageTracking();
 
+        // Demo 5: Per-node top-K cache on a large dictionary
+        demonstrateTopKCache();
+
+        // Demo 6: Sessions sharing one dictionary
+        demonstrateSessions();
+
+        // Demo 7: Time-decayed usage
+        demonstrateDecayedUsage();
+
+        // Demo 8: Keystroke-by-keystroke query cursor
+        demonstrateQueryCursor();
+
+        // Demo 9: Result cache for hot short prefixes
+        demonstrateSuggestionCache();
+
+        // Demo 10: Matching inside identifiers
+        demonstrateInfixMatching();
+
+        // Demo 11: Removing words and reclaiming their nodes
+        demonstrateWordRemoval();
+
+        // Demo 12: Many ranking signals folded into one stored score
+        demonstratePrecomputedScores();
+
         System.out.println("=== Demo Complete ===");
     }
 
@@ -131,4 +163,220 @@ public class AutoCompleteEngineDemo {
 
         System.out.println();
     }
+
+    private static void demonstrateTopKCache() {
+        System.out.println("5. Top-K Cached Suggestions");
+        System.out.println("-".repeat(40));
+
+        AutoCompleteEngine plainEngine = new AutoCompleteEngine(new FrequencyStrategy());
+        AutoCompleteEngine cachedEngine = new AutoCompleteEngine(new FrequencyStrategy(), 10);
+
+        // Synthetic identifiers: "p0", "p1", ... spread over a handful of first letters
+        int wordCount = 200_000;
+        String letters = "pcsm";
+        for (int i = 0; i < wordCount; i++) {
+            String word = letters.charAt(i % letters.length()) + Integer.toString(i, 36);
+            plainEngine.addWord(word, EntryType.VARIABLE, "java");
+            cachedEngine.addWord(word, EntryType.VARIABLE, "java");
+        }
+        plainEngine.recordUsage("p2s");
+        cachedEngine.recordUsage("p2s");
+
+        long start = System.nanoTime();
+        List<String> plain = plainEngine.suggest("p", 5);
+        long plainNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<String> cached = cachedEngine.suggest("p", 5);
+        long cachedNanos = System.nanoTime() - start;
+
+        System.out.printf("Full subtree walk: %s in %.2f ms%n", plain, plainNanos / 1_000_000.0);
+        System.out.printf("Top-K cache:       %s in %.3f ms%n", cached, cachedNanos / 1_000_000.0);
+
+        System.out.println();
+    }
+
+    private static void demonstrateSessions() {
+        System.out.println("6. Per-Session Language Context");
+        System.out.println("-".repeat(40));
+
+        AutoCompleteEngine engine = new AutoCompleteEngine(new FrequencyStrategy(), TrieLayout.CONCURRENT);
+        engine.initializeLanguage("java");
+        engine.initializeLanguage("python");
+
+        AutoCompleteSession javaSession = engine.openSession("java");
+        AutoCompleteSession pythonSession = engine.openSession("python", 2, Duration.ofMinutes(10));
+
+        System.out.println("Java session 'pr': " + javaSession.suggest("pr", 3));
+        System.out.println("Python session 'pr': " + pythonSession.suggest("pr", 3));
+
+        // The python session only remembers its last two prefixes
+        pythonSession.suggest("ra", 3);
+        pythonSession.suggest("le", 3);
+        System.out.println("Java session history: " + javaSession.getContextHistory());
+        System.out.println("Python session history (capacity 2): " + pythonSession.getContextHistory());
+
+        System.out.println();
+    }
+
+    private static void demonstrateDecayedUsage() {
+        System.out.println("7. Time-Decayed Usage");
+        System.out.println("-".repeat(40));
+
+        // Decay is applied lazily on read: 10 uses two half-lives ago are worth 2.5 now
+        DecayingCounter counter = new DecayingCounter(Duration.ofHours(1));
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 10; i++) {
+            counter.increment(start);
+        }
+        System.out.printf("10 uses, read after 0h: %.2f, after 2h: %.2f%n",
+                counter.get(start), counter.get(start + Duration.ofHours(2).toMillis()));
+
+        AutoCompleteEngine engine = new AutoCompleteEngine(new FrequencyStrategy(true));
+        engine.initializeLanguage("java");
+        engine.recordUsage("protected");
+        engine.recordUsage("println");
+        System.out.println("Suggestions for 'p' ranked by decayed usage: " + engine.suggest("p", 3));
+
+        System.out.println();
+    }
+
+    private static void demonstrateQueryCursor() {
+        System.out.println("8. Keystroke Query Cursor");
+        System.out.println("-".repeat(40));
+
+        AutoCompleteEngine engine = new AutoCompleteEngine(new RelevanceStrategy());
+        int wordCount = 200_000;
+        String[] stems = {"get", "set", "parse", "print"};
+        for (int i = 0; i < wordCount; i++) {
+            engine.addWord(stems[i % stems.length] + Integer.toString(i, 36), EntryType.METHOD, "java");
+        }
+
+        // An editor asking for suggestions after every keystroke of "printab", with one typo fixed;
+        // the sequence is replayed a few times so the JIT has warmed up for the last, measured round
+        String[] keystrokes = {"p", "r", "i", "n", "t", "x", "<bs>", "a", "b"};
+        long suggestNanos = 0;
+        long cursorNanos = 0;
+        QueryCursor cursor = null;
+        List<String> last = List.of();
+        for (int round = 0; round < 5; round++) {
+            StringBuilder typed = new StringBuilder();
+            suggestNanos = 0;
+            cursorNanos = 0;
+            cursor = engine.startQuery();
+            for (String key : keystrokes) {
+                if (key.equals("<bs>")) {
+                    typed.setLength(typed.length() - 1);
+                } else {
+                    typed.append(key);
+                }
+                long start = System.nanoTime();
+                engine.suggest(typed.toString(), 5);
+                suggestNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                if (key.equals("<bs>")) {
+                    cursor.backspace();
+                } else {
+                    cursor.type(key.charAt(0));
+                }
+                last = cursor.top(5);
+                cursorNanos += System.nanoTime() - start;
+            }
+        }
+
+        System.out.println("Cursor suggestions for '" + cursor.getPrefix() + "': " + last);
+        System.out.printf("suggest per keystroke: %.2f ms, cursor per keystroke: %.2f ms%n",
+                suggestNanos / 1_000_000.0 / keystrokes.length, cursorNanos / 1_000_000.0 / keystrokes.length);
+
+        System.out.println();
+    }
+
+    private static void demonstrateSuggestionCache() {
+        System.out.println("9. Suggestion Result Cache");
+        System.out.println("-".repeat(40));
+
+        AutoCompleteEngine engine = new AutoCompleteEngine(new FrequencyStrategy());
+        engine.initializeLanguage("java");
+        engine.enableSuggestionCache(1_000, Duration.ofMinutes(5));
+
+        // Editors ask for the same short prefixes over and over
+        String[] prefixes = {"p", "pr", "pri", "s", "st", "c"};
+        for (int i = 0; i < 600; i++) {
+            engine.suggest(prefixes[i % prefixes.length], 5);
+        }
+        System.out.println("After 600 suggests: " + engine.getSuggestionCache());
+
+        // Using "println" only invalidates "", "p", "pr", "pri", ...; "s", "st" and "c" stay cached
+        engine.recordUsage("println");
+        System.out.println("'pri' after using println: " + engine.suggest("pri", 3));
+        System.out.println("After recordUsage: " + engine.getSuggestionCache());
+
+        System.out.println();
+    }
+
+    private static void demonstrateInfixMatching() {
+        System.out.println("10. Infix and camelCase Matching");
+        System.out.println("-".repeat(40));
+
+        AutoCompleteEngine engine = new AutoCompleteEngine(new RelevanceStrategy());
+        engine.initializeLanguage("java");
+        engine.enableInfixIndex();
+        engine.addWord("getUserAccount", EntryType.METHOD, "java");
+        engine.addWord("HTMLParser", EntryType.CLASS, "java");
+
+        for (String query : new String[]{"hC", "List", "gUA", "Parser", "HP"}) {
+            System.out.println("'" + query + "' prefix: " + engine.suggest(query, 3)
+                    + "  infix: " + engine.suggestInfix(query, 3));
+        }
+
+        System.out.println();
+    }
+
+    private static void demonstrateWordRemoval() {
+        System.out.println("11. Word Removal and Compaction");
+        System.out.println("-".repeat(40));
+
+        AutoCompleteEngine engine = new AutoCompleteEngine(new FrequencyStrategy(), TrieLayout.COMPACT);
+        engine.initializeLanguage("java");
+        for (int i = 0; i < 200; i++) {
+            engine.addWord("tmpSymbol" + i, EntryType.VARIABLE, "java");
+        }
+        System.out.println("With temporary symbols: " + engine.getMemoryReport());
+
+        for (int i = 0; i < 200; i++) {
+            engine.removeWord("tmpSymbol" + i);
+        }
+        System.out.println("After removal:          " + engine.getMemoryReport());
+        engine.compact();
+        System.out.println("After compact:          " + engine.getMemoryReport());
+        System.out.println("Suggestions for 'tmp': " + engine.suggest("tmp", 3));
+
+        System.out.println();
+    }
+
+    private static void demonstratePrecomputedScores() {
+        System.out.println("12. Precomputed Multi-Signal Scores");
+        System.out.println("-".repeat(40));
+
+        // Type, decayed usage, recency and a bonus for Python, evaluated when a word changes
+        WeightedScoringModel model = new WeightedScoringModel(1.0, 0.25, 0.5,
+                WeightedScoringModel.DEFAULT_RECENCY_HALF_LIFE, Map.of("python", 0.2));
+        AutoCompleteEngine engine = new AutoCompleteEngine(new PrecomputedScoreStrategy(model));
+        engine.initializeLanguage("java");
+        engine.initializeLanguage("python");
+        engine.setLanguageContext(null);
+
+        System.out.println("'pr' by type and language: " + engine.suggest("pr", 4));
+        for (int i = 0; i < 5; i++) {
+            engine.recordUsage("protected");
+        }
+        System.out.println("'pr' after using protected: " + engine.suggest("pr", 4));
+
+        // Recency fades between updates; a periodic rescore brings every score up to date
+        engine.rescore();
+        System.out.println("'pr' after rescore: " + engine.suggest("pr", 4));
+
+        System.out.println();
+    }
 }
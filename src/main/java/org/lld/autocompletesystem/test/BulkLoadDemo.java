@@ -0,0 +1,53 @@
+package org.lld.autocompletesystem.test;
+
+import org.lld.autocompletesystem.AutoCompleteEngine;
+import org.lld.autocompletesystem.BulkLoadReport;
+import org.lld.autocompletesystem.EntryType;
+import org.lld.autocompletesystem.WordEntry;
+import org.lld.autocompletesystem.strategy.FrequencyStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Loads the same synthetic symbol set one addWord at a time and with the parallel bulk
+ * loader. Pass the word count as the first argument (default 1,000,000).
+ */
+public class BulkLoadDemo {
+    private static final String[] VERBS = {"get", "set", "is", "has", "create", "update", "delete", "find",
+            "load", "save", "parse", "build", "to", "on", "handle", "compute"};
+    private static final String[] NOUNS = {"User", "Order", "Payment", "Account", "Session", "Config",
+            "Index", "Token", "Value", "Buffer", "Request", "Response", "Event", "Cache", "Node", "Path"};
+
+    public static void main(String[] args) {
+        int wordCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.println("=== Bulk Dictionary Load Demo ===\n");
+
+        Random random = new Random(42);
+        EntryType[] types = EntryType.values();
+        List<WordEntry> words = new ArrayList<>(wordCount);
+        for (int i = 0; i < wordCount; i++) {
+            String word = VERBS[random.nextInt(VERBS.length)] + NOUNS[random.nextInt(NOUNS.length)]
+                    + NOUNS[random.nextInt(NOUNS.length)] + Integer.toString(i, 36);
+            words.add(new WordEntry(word, types[random.nextInt(types.length)], "java", random.nextInt(4)));
+        }
+        System.out.printf("Generated %,d identifiers%n", wordCount);
+
+        AutoCompleteEngine sequential = new AutoCompleteEngine(new FrequencyStrategy());
+        long start = System.nanoTime();
+        for (WordEntry entry : words) {
+            sequential.addWord(entry.getWord(), entry.getEntryType(), entry.getLanguage());
+        }
+        long sequentialNanos = System.nanoTime() - start;
+        System.out.printf("addWord loop: %.1f ms, %,.0f words/sec%n",
+                sequentialNanos / 1_000_000.0, wordCount * 1_000_000_000.0 / sequentialNanos);
+
+        AutoCompleteEngine bulk = new AutoCompleteEngine(new FrequencyStrategy());
+        BulkLoadReport report = bulk.bulkLoad(words.stream(), ForkJoinPool.commonPool());
+        System.out.println("bulkLoad:     " + report);
+
+        System.out.println("\nSuggestions for 'getUser': " + bulk.suggest("getUser", 3));
+    }
+}
@@ -0,0 +1,113 @@
+package org.lld.autocompletesystem.test;
+
+import org.lld.autocompletesystem.AutoCompleteEngine;
+import org.lld.autocompletesystem.EntryType;
+import org.lld.autocompletesystem.TrieLayout;
+import org.lld.autocompletesystem.strategy.FrequencyStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stress test for a shared CONCURRENT engine: writer threads add interleaved words that
+ * land in the same trie nodes (sym0_0, sym0_1, ... for writers 0, 1, ...) and hammer a few hot keywords with usage increments while reader threads keep suggesting.
+ * Exits with status 1 if any word or any usage increment is lost.
+ */
+public class ConcurrentEngineStressDemo {
+    private static final int WRITERS = 8;
+    private static final int READERS = 4;
+    private static final int WORDS_PER_WRITER = 20_000;
+    private static final int HOT_INCREMENTS_PER_WRITER = 60_000;
+    private static final String[] HOT_WORDS = {"public", "private", "return"};
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Concurrent Engine Stress Test ===\n");
+
+        AutoCompleteEngine engine = new AutoCompleteEngine(new FrequencyStrategy(), TrieLayout.CONCURRENT);
+        engine.initializeLanguage("java");
+
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writersDone = new AtomicBoolean(false);
+        AtomicLong suggestCalls = new AtomicLong();
+
+        List<Future<?>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writerId = w;
+            writers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < WORDS_PER_WRITER; i++) {
+                    engine.addWord("sym" + i + "_" + writerId, EntryType.VARIABLE, "java");
+                }
+                for (int i = 0; i < HOT_INCREMENTS_PER_WRITER; i++) {
+                    engine.recordUsage(HOT_WORDS[i % HOT_WORDS.length]);
+                }
+                return null;
+            }));
+        }
+
+        List<Future<?>> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            readers.add(pool.submit(() -> {
+                start.await();
+                String[] prefixes = {"p", "sym1999", "sym42", "re"};
+                int i = 0;
+                while (!writersDone.get()) {
+                    engine.suggest(prefixes[i++ % prefixes.length], 5);
+                    suggestCalls.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        writersDone.set(true);
+        for (Future<?> reader : readers) {
+            reader.get(); // Rethrows any exception seen by a reader
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+
+        boolean passed = true;
+        int expectedWords = WRITERS * WORDS_PER_WRITER;
+        int found = engine.suggest("sym", expectedWords + 1).size();
+        if (found != expectedWords) {
+            System.out.println("LOST WORDS: found " + found + " of " + expectedWords);
+            passed = false;
+        }
+
+        // Every hot word received the same number of increments from every writer. A probe word
+        // with exactly that usage ties with them and sorts first alphabetically; a lost or
+        // duplicated increment on any hot word changes this order.
+        long expectedUsage = (long) WRITERS * HOT_INCREMENTS_PER_WRITER / HOT_WORDS.length;
+        engine.setLanguageContext(null);
+        engine.addWord("aaaProbe", EntryType.VARIABLE, "java");
+        for (long i = 0; i < expectedUsage; i++) {
+            engine.recordUsage("aaaProbe");
+        }
+        List<String> top = engine.suggest("", 4);
+        if (!top.equals(List.of("aaaProbe", "private", "public", "return"))) {
+            System.out.println("LOST UPDATES: expected " + expectedUsage + " uses per hot word, ranking was " + top);
+            passed = false;
+        }
+
+        System.out.printf("%d writers x %d words + %d hot increments, %d readers: %,d suggests in %.2f s%n",
+                WRITERS, WORDS_PER_WRITER, HOT_INCREMENTS_PER_WRITER, READERS, suggestCalls.get(), seconds);
+        System.out.println(passed ? "PASSED: no lost words or usage updates" : "FAILED");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.lld.autocompletesystem.test;
+
+import org.lld.autocompletesystem.AutoCompleteEngine;
+import org.lld.autocompletesystem.EntryType;
+import org.lld.autocompletesystem.strategy.FrequencyStrategy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class DictionaryFileDemo {
+    public static void main(String[] args) throws IOException {
+        System.out.println("=== Memory-Mapped Dictionary Demo ===\n");
+
+        Path file = Files.createTempFile("autocomplete", ".acdx");
+        try {
+            // Build once: populate an engine and write the binary dictionary
+            long start = System.nanoTime();
+            AutoCompleteEngine builder = new AutoCompleteEngine(new FrequencyStrategy());
+            builder.initializeLanguage("java");
+            builder.initializeLanguage("python");
+            for (int i = 0; i < 500_000; i++) {
+                builder.addWord("symbol" + Integer.toString(i, 36), EntryType.VARIABLE, "java");
+            }
+            builder.recordUsage("println");
+            builder.writeDictionary(file);
+            System.out.printf("Built and wrote %,d bytes in %.1f ms%n",
+                    Files.size(file), (System.nanoTime() - start) / 1_000_000.0);
+
+            // Every later start-up: map the file, no trie rebuild
+            start = System.nanoTime();
+            AutoCompleteEngine engine = AutoCompleteEngine.openDictionary(file, new FrequencyStrategy());
+            System.out.printf("Opened mapped dictionary in %.2f ms%n", (System.nanoTime() - start) / 1_000_000.0);
+            System.out.println(engine.getMemoryReport());
+
+            engine.setLanguageContext("java");
+            List<String> suggestions = engine.suggest("pr", 5);
+            System.out.println("Suggestions for 'pr': " + suggestions);
+            System.out.println("Suggestions for 'symbolzz': " + engine.suggest("symbolzz", 3));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
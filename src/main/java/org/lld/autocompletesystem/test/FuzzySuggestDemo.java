@@ -0,0 +1,61 @@
+package org.lld.autocompletesystem.test;
+
+import org.lld.autocompletesystem.AutoCompleteEngine;
+import org.lld.autocompletesystem.EntryType;
+import org.lld.autocompletesystem.strategy.RelevanceStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class FuzzySuggestDemo {
+    private static final String[] PARTS = {
+            "get", "set", "find", "load", "save", "parse", "build", "create", "update", "remove",
+            "User", "Order", "Payment", "Account", "Session", "Config", "Index", "Token", "Value", "Buffer"
+    };
+
+    public static void main(String[] args) {
+        System.out.println("=== Fuzzy (Typo-Tolerant) Autocomplete Demo ===\n");
+
+        AutoCompleteEngine engine = new AutoCompleteEngine(new RelevanceStrategy());
+        engine.initializeLanguage("java");
+
+        Random random = new Random(7);
+        List<String> words = new ArrayList<>();
+        int wordCount = 300_000;
+        for (int i = 0; i < wordCount; i++) {
+            String word = PARTS[random.nextInt(10)] + PARTS[10 + random.nextInt(10)]
+                    + PARTS[10 + random.nextInt(10)] + i;
+            engine.addWord(word, EntryType.METHOD, "java");
+            words.add(word);
+        }
+        System.out.printf("Loaded %,d identifiers%n%n", wordCount);
+
+        String[] typos = {"pirnt", "pubilc", "retrun", "hashCdoe", "getUsr"};
+        for (String typo : typos) {
+            System.out.println("'" + typo + "' exact: " + engine.suggest(typo, 3)
+                    + "  fuzzy(2): " + engine.suggestFuzzy(typo, 3, 2));
+        }
+
+        // Latency: exact lookup of a real prefix vs fuzzy lookup of the same prefix with one typo
+        int queries = 2_000;
+        long exactNanos = 0;
+        long fuzzyNanos = 0;
+        for (int q = 0; q < queries; q++) {
+            String word = words.get(random.nextInt(words.size()));
+            String prefix = word.substring(0, 8);
+            int typoAt = 1 + random.nextInt(prefix.length() - 1);
+            String typo = prefix.substring(0, typoAt) + 'x' + prefix.substring(typoAt + 1);
+
+            long start = System.nanoTime();
+            engine.suggest(prefix, 5);
+            exactNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            engine.suggestFuzzy(typo, 5, 1);
+            fuzzyNanos += System.nanoTime() - start;
+        }
+        System.out.printf("%nAverage over %,d queries: exact %.3f ms, fuzzy (1 edit, with typo) %.3f ms%n",
+                queries, exactNanos / 1_000_000.0 / queries, fuzzyNanos / 1_000_000.0 / queries);
+    }
+}
@@ -0,0 +1,62 @@
+package org.lld.autocompletesystem.test;
+
+import org.lld.autocompletesystem.AutoCompleteEngine;
+import org.lld.autocompletesystem.EntryType;
+import org.lld.autocompletesystem.TrieLayout;
+import org.lld.autocompletesystem.strategy.FrequencyStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class MemoryReportDemo {
+    private static final String[] PARTS = {
+            "get", "set", "is", "has", "create", "update", "delete", "find", "load", "save",
+            "User", "Order", "Payment", "Account", "Session", "Cache", "Index", "Node", "Value", "Map",
+            "By", "For", "With", "From", "All", "Id", "Name", "List", "Count", "Status"
+    };
+
+    public static void main(String[] args) {
+        System.out.println("=== Trie Layout Memory Report ===\n");
+
+        List<String> words = generateIdentifiers(100_000);
+        for (TrieLayout layout : new TrieLayout[]{TrieLayout.HASH_MAP, TrieLayout.COMPACT}) {
+            AutoCompleteEngine engine = new AutoCompleteEngine(new FrequencyStrategy(), layout);
+            for (String word : words) {
+                engine.addWord(word, EntryType.METHOD, "java");
+            }
+            engine.initializeLanguage("java");
+
+            System.out.println(engine.getMemoryReport());
+            System.out.println("  suggest(\"getUser\", 3) -> " + engine.suggest("getUser", 3));
+        }
+
+        // Frozen: compile the mutable trie into a read-only radix snapshot
+        AutoCompleteEngine engine = new AutoCompleteEngine(new FrequencyStrategy(), TrieLayout.COMPACT);
+        for (String word : words) {
+            engine.addWord(word, EntryType.METHOD, "java");
+        }
+        engine.initializeLanguage("java");
+        engine.freeze();
+        System.out.println(engine.getMemoryReport());
+        System.out.println("  suggest(\"getUser\", 3) -> " + engine.suggest("getUser", 3));
+    }
+
+    /**
+     * camelCase identifiers built from common parts, e.g. "findOrderByIdCount"
+     */
+    private static List<String> generateIdentifiers(int count) {
+        Random random = new Random(42);
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder word = new StringBuilder(PARTS[random.nextInt(10)]);
+            int parts = 1 + random.nextInt(3);
+            for (int p = 0; p < parts; p++) {
+                word.append(PARTS[10 + random.nextInt(20)]);
+            }
+            word.append(i);
+            words.add(word.toString());
+        }
+        return words;
+    }
+}
@@ -0,0 +1,103 @@
+package org.lld.autocompletesystem.test;
+
+import org.lld.autocompletesystem.AutoCompleteEngine;
+import org.lld.autocompletesystem.AutoCompleteShard;
+import org.lld.autocompletesystem.EntryType;
+import org.lld.autocompletesystem.ShardedAutoCompleteEngine;
+import org.lld.autocompletesystem.TrieLayout;
+import org.lld.autocompletesystem.WordEntry;
+import org.lld.autocompletesystem.strategy.FrequencyStrategy;
+import org.lld.autocompletesystem.strategy.RankingStrategy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class ShardedEngineDemo {
+    private static final String[] PARTS = {"get", "set", "find", "load", "save", "parse", "build", "create",
+            "User", "Order", "Payment", "Account", "Session", "Config", "Index", "Token"};
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== Sharded Autocomplete Demo ===\n");
+
+        RankingStrategy strategy = new FrequencyStrategy();
+        Random random = new Random(3);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            words.add(PARTS[random.nextInt(8)] + PARTS[8 + random.nextInt(8)] + i);
+        }
+
+        // Balanced ranges from a sample, so the 'g'/'s' heavy vocabulary still spreads evenly
+        int shardCount = 4;
+        List<String> splitPoints = ShardedAutoCompleteEngine.balancedSplitPoints(words.subList(0, 10_000), shardCount);
+        List<AutoCompleteShard> shards = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            AutoCompleteShard shard = AutoCompleteShard.local(new AutoCompleteEngine(strategy, TrieLayout.CONCURRENT));
+            // The last shard answers slowly, standing in for a remote node under GC or network trouble
+            shards.add(i == shardCount - 1 ? slow(shard, 100) : shard);
+        }
+
+        try (ShardedAutoCompleteEngine engine =
+                     new ShardedAutoCompleteEngine(strategy, shards, splitPoints, Duration.ofMillis(30))) {
+            for (String word : words) {
+                engine.addWord(word, EntryType.METHOD, "java");
+            }
+            for (int i = 0; i < 20_000; i++) {
+                engine.recordUsage(words.get(random.nextInt(1_000)));
+            }
+            System.out.println("Split points: " + engine.getSplitPoints());
+
+            // Latency percentiles: prefixes owned by the slow shard come back empty at the deadline
+            long[] nanos = new long[2_000];
+            for (int i = 0; i < nanos.length; i++) {
+                String word = words.get(random.nextInt(words.size()));
+                String prefix = word.substring(0, Math.min(word.length(), 4));
+                long start = System.nanoTime();
+                engine.suggest(prefix, 5);
+                nanos[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(nanos);
+            System.out.printf("Random 4-char prefixes: p50 %.2f ms, p99 %.2f ms (deadline 30 ms)%n%n",
+                    nanos[nanos.length / 2] / 1_000_000.0, nanos[nanos.length * 99 / 100] / 1_000_000.0);
+
+            for (String prefix : new String[]{"getUser", "c", "s", "save"}) {
+                long start = System.nanoTime();
+                List<String> suggestions = engine.suggest(prefix, 3);
+                System.out.printf("'%s' -> %s in %.1f ms%n", prefix, suggestions, (System.nanoTime() - start) / 1_000_000.0);
+            }
+            System.out.println("Shard calls: " + engine.getShardCalls() + ", timed out: " + engine.getTimedOutShardCalls());
+        }
+    }
+
+    private static AutoCompleteShard slow(AutoCompleteShard shard, long delayMillis) {
+        return new AutoCompleteShard() {
+            @Override
+            public List<WordEntry> suggestEntries(String prefix, int maxResults, String language) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return List.of();
+                }
+                return shard.suggestEntries(prefix, maxResults, language);
+            }
+
+            @Override
+            public void addWord(String word, EntryType entryType, String language) {
+                shard.addWord(word, entryType, language);
+            }
+
+            @Override
+            public void recordUsage(String word) {
+                shard.recordUsage(word);
+            }
+
+            @Override
+            public boolean removeWord(String word) {
+                return shard.removeWord(word);
+            }
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package org.lld.autocompletesystem.test;
+
+import org.lld.autocompletesystem.AutoCompleteEngine;
+import org.lld.autocompletesystem.EntryType;
+import org.lld.autocompletesystem.strategy.RelevanceStrategy;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Allocation-rate benchmark: bytes allocated per call of suggest versus suggestInto,
+ * measured with the HotSpot per-thread allocation counter.
+ */
+public class SuggestAllocationDemo {
+    private static final String[] PREFIXES = {"get", "set", "pr", "c", "getUser"};
+    private static final int WARMUP_CALLS = 20_000;
+    private static final int MEASURED_CALLS = 20_000;
+
+    public static void main(String[] args) {
+        System.out.println("=== Suggest Allocation Benchmark ===\n");
+
+        AutoCompleteEngine engine = new AutoCompleteEngine(new RelevanceStrategy());
+        engine.initializeLanguage("java");
+        String[] verbs = {"get", "set", "create", "update"};
+        String[] nouns = {"User", "Order", "Payment", "Account", "Session"};
+        for (int i = 0; i < 5_000; i++) {
+            engine.addWord(verbs[i % verbs.length] + nouns[i % nouns.length] + i, EntryType.METHOD, "java");
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            engine.suggest(PREFIXES[i % PREFIXES.length], 10);
+            out.clear();
+            engine.suggestInto(PREFIXES[i % PREFIXES.length], 10, out);
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            engine.suggest(PREFIXES[i % PREFIXES.length], 10);
+        }
+        long suggestNanos = System.nanoTime() - start;
+        long suggestBytes = threads.getThreadAllocatedBytes(threadId) - before;
+
+        before = threads.getThreadAllocatedBytes(threadId);
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            out.clear();
+            engine.suggestInto(PREFIXES[i % PREFIXES.length], 10, out);
+        }
+        long intoNanos = System.nanoTime() - start;
+        long intoBytes = threads.getThreadAllocatedBytes(threadId) - before;
+
+        System.out.printf("suggest:     %,10d bytes/call, %8.1f us/call%n",
+                suggestBytes / MEASURED_CALLS, suggestNanos / 1_000.0 / MEASURED_CALLS);
+        System.out.printf("suggestInto: %,10d bytes/call, %8.1f us/call%n",
+                intoBytes / MEASURED_CALLS, intoNanos / 1_000.0 / MEASURED_CALLS);
+        System.out.println("Last result: " + out);
+    }
+}
@@ -0,0 +1,72 @@
+package org.lld.autocompletesystem.test;
+
+import org.lld.autocompletesystem.AutoCompleteEngine;
+import org.lld.autocompletesystem.UsageJournal;
+import org.lld.autocompletesystem.strategy.FrequencyStrategy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+public class UsageJournalDemo {
+    private static final int USES = 2_000_000;
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("=== Usage Journal Demo ===\n");
+
+        Path directory = Files.createTempDirectory("autocomplete-usage");
+        try {
+            // First run: learn that this user prefers println and private
+            AutoCompleteEngine engine = newEngine();
+            System.out.println("Fresh start, 'pr': " + engine.suggest("pr", 4));
+            UsageJournal journal = engine.openUsageJournal(directory, Duration.ofMillis(100));
+            String[] favourites = {"println", "private", "private", "println", "println"};
+            for (int i = 0; i < 1_000; i++) {
+                engine.recordUsage(favourites[i % favourites.length]);
+            }
+            journal.checkpoint(); // Fold the journal into the snapshot
+            engine.recordUsage("protected");
+            engine.closeUsageJournal();
+            System.out.println("After learning, 'pr': " + engine.suggest("pr", 4));
+            System.out.println("Journal: " + journal);
+
+            // Second run: the same ranking, restored from the snapshot plus the journal
+            AutoCompleteEngine restarted = newEngine();
+            UsageJournal restored = restarted.openUsageJournal(directory, Duration.ofMillis(100));
+            System.out.println("After restart, 'pr':  " + restarted.suggest("pr", 4));
+            System.out.println("Replayed entries: " + restored.getReplayedEntryCount());
+
+            // recordUsage only merges into a pending map; the I/O happens on the flusher thread
+            long plain = timeUses(newEngine());
+            long journaled = timeUses(restarted);
+            restarted.closeUsageJournal();
+            System.out.printf("%n%,d recordUsage calls: %.1f ns/call without journal, %.1f ns/call with%n",
+                    USES, (double) plain / USES, (double) journaled / USES);
+            System.out.println("Journal: " + restored);
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    private static AutoCompleteEngine newEngine() {
+        AutoCompleteEngine engine = new AutoCompleteEngine(new FrequencyStrategy());
+        engine.initializeLanguage("java");
+        return engine;
+    }
+
+    private static long timeUses(AutoCompleteEngine engine) {
+        String[] words = {"println", "private", "print", "public", "protected", "static", "String"};
+        long start = System.nanoTime();
+        for (int i = 0; i < USES; i++) {
+            engine.recordUsage(words[i % words.length]);
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,17 @@
+package org.lld.combinedratelimiter;
+
+
+/**
+ * How a request takes its buckets when some of them are shared with other endpoints through
+ * an aggregate rule
+ */
+public enum AdmissionMode {
+    // One lock per (clientId, endpoint). Fast, but two endpoints of one group check the shared
+    // bucket under different locks, so together they can over-admit
+    ENDPOINT_LOCK,
+    // Lock every bucket of the request in slot id order, then check and take them all
+    ORDERED_LOCKS,
+    // Take each bucket atomically without an outer lock and hand back the taken ones if a later
+    // one refuses. May refuse a request while another one rolls back, never over-admits
+    RESERVE_ROLLBACK
+}
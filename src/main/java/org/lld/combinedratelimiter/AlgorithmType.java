@@ -2,8 +2,24 @@ package org.lld.combinedratelimiter;
 
 
 public enum AlgorithmType {
-    TOKEN_BUCKET,
-    SLIDING_WINDOW,
-    LEAKY_BUCKET,
-    FIXED_WINDOW
+    TOKEN_BUCKET(false),
+    SLIDING_WINDOW(false),
+    LEAKY_BUCKET(false),
+    FIXED_WINDOW(false),
+    // Constant-memory approximations of SLIDING_WINDOW
+    SLIDING_WINDOW_COUNTER(false),
+    SLIDING_WINDOW_RING(false),
+    // CAS on a single AtomicLong instead of a monitor
+    ATOMIC_TOKEN_BUCKET(true),
+    ATOMIC_LEAKY_BUCKET(true);
+
+    private final boolean lockFree;
+
+    AlgorithmType(boolean lockFree) {
+        this.lockFree = lockFree;
+    }
+
+    public boolean isLockFree() {
+        return lockFree;
+    }
 }
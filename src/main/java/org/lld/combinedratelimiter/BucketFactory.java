@@ -1,8 +1,12 @@
 package org.lld.combinedratelimiter;
 
+import org.lld.combinedratelimiter.algorithms.AtomicLeakyBucket;
+import org.lld.combinedratelimiter.algorithms.AtomicTokenBucket;
 import org.lld.combinedratelimiter.algorithms.FixedWindowBucket;
 import org.lld.combinedratelimiter.algorithms.LeakyBucketBucket;
 import org.lld.combinedratelimiter.algorithms.SlidingWindowBucket;
+import org.lld.combinedratelimiter.algorithms.SlidingWindowCounterBucket;
+import org.lld.combinedratelimiter.algorithms.SubWindowRingBucket;
 import org.lld.combinedratelimiter.algorithms.TokenBucketBucket;
 
 public final class BucketFactory {
@@ -13,6 +17,10 @@ public final class BucketFactory {
             case SLIDING_WINDOW -> new SlidingWindowBucket(period);
             case LEAKY_BUCKET -> new LeakyBucketBucket(period);
             case FIXED_WINDOW -> new FixedWindowBucket(period);
+            case SLIDING_WINDOW_COUNTER -> new SlidingWindowCounterBucket(period);
+            case SLIDING_WINDOW_RING -> new SubWindowRingBucket(period);
+            case ATOMIC_TOKEN_BUCKET -> new AtomicTokenBucket(period);
+            case ATOMIC_LEAKY_BUCKET -> new AtomicLeakyBucket(period);
         };
     }
 }
@@ -0,0 +1,38 @@
+package org.lld.combinedratelimiter;
+
+/**
+ * One compiled (rule, period) pair. The id indexes the per-client bucket array, and every
+ * endpoint of an aggregate group refers to the same slot, so they share one bucket per client.
+ * Ids of retired rules are reused; the generation tells a client's bucket for this slot apart
+ * from one left behind by an earlier user of the id.
+ */
+final class BucketSlot {
+
+    private final int id;
+    private final int generation;
+    private final PeriodLimit period;
+    private final AlgorithmType algorithmType;
+
+    BucketSlot(int id, int generation, PeriodLimit period, AlgorithmType algorithmType) {
+        this.id = id;
+        this.generation = generation;
+        this.period = period;
+        this.algorithmType = algorithmType;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    int getGeneration() {
+        return generation;
+    }
+
+    PeriodLimit getPeriod() {
+        return period;
+    }
+
+    AlgorithmType getAlgorithmType() {
+        return algorithmType;
+    }
+}
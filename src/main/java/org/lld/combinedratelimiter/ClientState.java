@@ -0,0 +1,109 @@
+package org.lld.combinedratelimiter;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Buckets and locks of one client, indexed by slot id. Lookups read the array without
+ * locking; creating a bucket or growing the array after a new rule takes the monitor.
+ * The sweep drops idle buckets with a CAS, so a request never waits for it. Each entry keeps
+ * the generation of the slot it was made for, and one from an earlier generation of a reused
+ * id is replaced rather than returned.
+ */
+final class ClientState {
+
+    private volatile AtomicReferenceArray<Object> slots;
+    private volatile long lastAccessMillis;
+
+    ClientState(int slotCount, long nowMillis) {
+        this.slots = new AtomicReferenceArray<>(slotCount);
+        this.lastAccessMillis = nowMillis;
+    }
+
+    void touch(long nowMillis) {
+        // Skip the write when it changes nothing, so a hot client's state stays in shared cache lines
+        if (lastAccessMillis < nowMillis) {
+            lastAccessMillis = nowMillis;
+        }
+    }
+
+    long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    /**
+     * Drop every bucket that is idle, since an equal one will be created on the next request.
+     * Returns how many were dropped.
+     */
+    int dropIdleBuckets(long nowMillis) {
+        AtomicReferenceArray<Object> current = slots;
+        int dropped = 0;
+        for (int i = 0; i < current.length(); i++) {
+            if (current.get(i) instanceof Entry entry && entry.value instanceof RateLimitBucket bucket
+                    && bucket.isIdle(nowMillis) && current.compareAndSet(i, entry, null)) {
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    int bucketCount() {
+        AtomicReferenceArray<Object> current = slots;
+        int count = 0;
+        for (int i = 0; i < current.length(); i++) {
+            if (current.get(i) instanceof Entry entry && entry.value instanceof RateLimitBucket) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    RateLimitBucket bucket(BucketSlot slot, BucketFactory bucketFactory) {
+        Object bucket = get(slot.getId(), slot.getGeneration());
+        if (bucket == null) {
+            bucket = create(slot.getId(), slot.getGeneration(),
+                    () -> bucketFactory.create(slot.getPeriod(), slot.getAlgorithmType()));
+        }
+        return (RateLimitBucket) bucket;
+    }
+
+    Object lock(int lockSlot, int generation) {
+        Object lock = get(lockSlot, generation);
+        return lock != null ? lock : create(lockSlot, generation, Object::new);
+    }
+
+    private Object get(int id, int generation) {
+        AtomicReferenceArray<Object> current = slots;
+        return id < current.length() && current.get(id) instanceof Entry entry && entry.generation == generation
+                ? entry.value
+                : null;
+    }
+
+    private synchronized Object create(int id, int generation, Supplier<Object> factory) {
+        AtomicReferenceArray<Object> current = slots;
+        if (id >= current.length()) {
+            AtomicReferenceArray<Object> grown = new AtomicReferenceArray<>(Math.max(id + 1, current.length() * 2));
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            slots = grown;
+            current = grown;
+        }
+        if (current.get(id) instanceof Entry entry && entry.generation == generation) {
+            return entry.value;
+        }
+        Object value = factory.get();
+        current.set(id, new Entry(generation, value));
+        return value;
+    }
+
+    private static final class Entry {
+        private final int generation;
+        private final Object value; // A RateLimitBucket, or the monitor of an ENDPOINT_LOCK lock slot
+
+        private Entry(int generation, Object value) {
+            this.generation = generation;
+            this.value = value;
+        }
+    }
+}
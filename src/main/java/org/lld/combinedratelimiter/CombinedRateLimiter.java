@@ -1,87 +1,363 @@
 package org.lld.combinedratelimiter;
 
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 
 public final class CombinedRateLimiter {
 
+    public static final int DEFAULT_MAX_CLIENTS = 1_000_000;
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(1);
+
+    private static final int SWEEP_CHUNK = 32; // Clients a request looks at while a sweep pass runs
+    private static final int EVICTION_SAMPLE = 8; // Clients compared to pick one LRU victim
+
     private final Map<String, EndpointRule> endpointRules = new ConcurrentHashMap<>();
     private final Map<String, AggregateRule> aggregateRules = new ConcurrentHashMap<>();
     private final BucketFactory bucketFactory = new BucketFactory();
+    private final AdmissionMode admissionMode;
+
+    // Rules compiled per endpoint, rebuilt whenever a rule is added
+    private volatile Map<String, EndpointPlan> plans = Map.of();
+    // Slot ids by (rule, period, algorithm); an unchanged rule keeps its slots, and with them its buckets.
+    // Ids no rule uses any more go back on a free list under a new generation, so replacing rules
+    // does not grow every client's array and a reused id never finds its old rule's bucket.
+    private final Map<String, Integer> slotIds = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlotIds = new ArrayDeque<>();
+    private final List<Integer> slotGenerations = new ArrayList<>(); // By slot id; its size is the id count
+    private volatile int slotCount;
+
+    // Per client: buckets by slot, plus one lock per (clientId, endpoint) for ENDPOINT_LOCK
+    private final Map<String, ClientState> clients = new ConcurrentHashMap<>();
+
+    // Client state expiry, done in bounded chunks by requests that win the housekeeping lock: a
+    // sweep pass over all clients starts once per idleTimeout, and past maxClients each new
+    // client evicts a least recently seen one
+    private final int maxClients;
+    private final long idleTimeoutMillis;
+    private final ReentrantLock housekeepingLock = new ReentrantLock();
+    private volatile long nextSweepMillis = System.currentTimeMillis();
+    private volatile boolean sweeping;
+    private Iterator<Map.Entry<String, ClientState>> sweepCursor; // Guarded by housekeepingLock
+    private Iterator<Map.Entry<String, ClientState>> evictionCursor; // Guarded by housekeepingLock
+    private final LongAdder expiredBuckets = new LongAdder();
+    private final LongAdder expiredClients = new LongAdder();
+    private final LongAdder lruEvictions = new LongAdder();
 
-    // Per (clientId, endpoint) buckets for endpoint-level limits
-    private final Map<String, RateLimitBucket> endpointBuckets = new ConcurrentHashMap<>();
-    // Per (clientId, groupId) buckets for aggregate limits
-    private final Map<String, RateLimitBucket> groupBuckets = new ConcurrentHashMap<>();
 
-    // Striped locks: one lock per (clientId, endpoint) to minimize contention
-    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+    public CombinedRateLimiter() {
+        this(AdmissionMode.ORDERED_LOCKS);
+    }
+
+    public CombinedRateLimiter(AdmissionMode admissionMode) {
+        this(admissionMode, DEFAULT_MAX_CLIENTS, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    public CombinedRateLimiter(AdmissionMode admissionMode, int maxClients, Duration idleTimeout) {
+        if (maxClients <= 0) {
+            throw new IllegalArgumentException("maxClients must be positive");
+        }
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("idleTimeout must be positive");
+        }
+        this.admissionMode = admissionMode;
+        this.maxClients = maxClients;
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+    }
+
+    public AdmissionMode getAdmissionMode() {
+        return admissionMode;
+    }
 
 
      // Register an endpoint rule. Replaces any existing rule for the endpoint.
-    public void addEndpointRule(EndpointRule rule) {
+    public synchronized void addEndpointRule(EndpointRule rule) {
         endpointRules.put(rule.getEndpoint(), rule);
+        compilePlans();
     }
 
 
      // Register an aggregate rule. Replaces any existing rule for the group.
 
-    public void addAggregateRule(AggregateRule rule) {
+    public synchronized void addAggregateRule(AggregateRule rule) {
         aggregateRules.put(rule.getGroupId(), rule);
+        compilePlans();
     }
 
 
     public boolean allowRequest(String clientId, String endpoint) {
-        List<RateLimitBucket> buckets = collectBuckets(clientId, endpoint);
+        EndpointPlan plan = plans.get(endpoint);
         // if endpoint is not registered in any bucket then return true
-        if (buckets.isEmpty()) {
+        if (plan == null) {
             return true;
         }
 
-        String lockKey = clientId + "|" + endpoint;
-        Object lock = locks.computeIfAbsent(lockKey, k -> new Object());
+        long now = System.currentTimeMillis();
+        boolean overCapacity = false;
+        ClientState client = clients.get(clientId);
+        if (client == null) {
+            long createdAt = now;
+            client = clients.computeIfAbsent(clientId, id -> new ClientState(slotCount, createdAt));
+            overCapacity = clients.size() > maxClients;
+        } else {
+            client.touch(now);
+        }
+        if ((overCapacity || sweeping || now >= nextSweepMillis) && housekeep(now, overCapacity, client)) {
+            // Admit by the clock after the housekeeping, not before it
+            now = System.currentTimeMillis();
+        }
+
+        BucketSlot[] slots = plan.getSlots();
+        if (plan.isLockFree() || admissionMode == AdmissionMode.RESERVE_ROLLBACK) {
+            return acquireAll(client, slots, now);
+        }
+        if (admissionMode == AdmissionMode.ORDERED_LOCKS) {
+            return acquireLocked(client, slots, 0);
+        }
 
-        synchronized (lock) {
+        synchronized (client.lock(plan.getLockSlot(), plan.getLockGeneration())) {
 
             // 5 per min -> true  // 50 per hour -> false
-            long now = System.currentTimeMillis();
-            for (RateLimitBucket bucket : buckets) {
-                if (!bucket.wouldAllow(now)) {
+            long lockedNow = System.currentTimeMillis();
+            for (BucketSlot slot : slots) {
+                if (!client.bucket(slot, bucketFactory).wouldAllow(lockedNow)) {
                     return false;
                 }
             }
-            for (RateLimitBucket bucket : buckets) {
-                bucket.consume(now);
+            for (BucketSlot slot : slots) {
+                client.bucket(slot, bucketFactory).consume(lockedNow);
             }
             return true;
         }
     }
 
-    private List<RateLimitBucket> collectBuckets(String clientId, String endpoint) {
-        List<RateLimitBucket> result = new ArrayList<>();
+    /**
+     * All or none without a lock: take a request from each bucket in turn, and hand back the
+     * ones already taken if a later bucket refuses. A request racing with a rollback may be
+     * refused by a permit that is about to be returned, but nothing is ever over-admitted.
+     */
+    private boolean acquireAll(ClientState client, BucketSlot[] slots, long now) {
+        return acquireFrom(client, slots, 0, now);
+    }
+
+    // Recursive so each reservation stays on the stack until the buckets after it have answered
+    private boolean acquireFrom(ClientState client, BucketSlot[] slots, int index, long now) {
+        if (index == slots.length) {
+            return true;
+        }
+        RateLimitBucket bucket = client.bucket(slots[index], bucketFactory);
+        long reservation = bucket.tryAcquire(now);
+        if (reservation == RateLimitBucket.REFUSED) {
+            return false;
+        }
+        if (acquireFrom(client, slots, index + 1, now)) {
+            return true;
+        }
+        // Released at the current time, so a lock-free bucket only gets back what has not drained yet
+        bucket.release(System.currentTimeMillis(), reservation);
+        return false;
+    }
+
+    /**
+     * Hold the monitor of every bucket, in slot id order so two requests sharing buckets never
+     * wait on each other in a cycle, then take them all. Nothing else can touch the buckets
+     * meanwhile, so the rollback in acquireAll only matters for lock-free buckets.
+     */
+    private boolean acquireLocked(ClientState client, BucketSlot[] slots, int index) {
+        if (index == slots.length) {
+            return acquireAll(client, slots, System.currentTimeMillis());
+        }
+        synchronized (client.bucket(slots[index], bucketFactory)) {
+            return acquireLocked(client, slots, index + 1);
+        }
+    }
 
-        EndpointRule epRule = endpointRules.get(endpoint);
-        if (epRule != null) {
-            for (PeriodLimit p : epRule.getPeriods()) {
-                String key = "ep:" + endpoint + ":" + p.getWindowMs() + ":" + clientId;
-                result.add(endpointBuckets.computeIfAbsent(key,
-                        k -> bucketFactory.create(p, epRule.getAlgorithmType())));
+    /**
+     * One bounded step of expiry on the request path, skipped when another request is already
+     * doing it. Returns whether any work was done.
+     */
+    private boolean housekeep(long now, boolean overCapacity, ClientState current) {
+        if (!housekeepingLock.tryLock()) {
+            return false;
+        }
+        try {
+            if (overCapacity) {
+                evictLeastRecentlySeen(current);
+            }
+            if (sweeping || now >= nextSweepMillis) {
+                sweepChunk(now);
             }
+            return true;
+        } finally {
+            housekeepingLock.unlock();
         }
+    }
 
-        for (AggregateRule aggRule : aggregateRules.values()) {
-            if (aggRule.getEndpoints().contains(endpoint)) {
-                for (PeriodLimit p : aggRule.getPeriods()) {
-                    String key = "grp:" + aggRule.getGroupId() + ":" + p.getWindowMs() + ":" + clientId;
-                    result.add(groupBuckets.computeIfAbsent(key,
-                            k -> bucketFactory.create(p, aggRule.getAlgorithmType())));
+    /**
+     * Look at the next SWEEP_CHUNK clients of the current pass, starting a pass if none runs.
+     * The map's iterator tolerates concurrent changes, so a pass spans many requests.
+     */
+    private void sweepChunk(long now) {
+        if (sweepCursor == null) {
+            sweepCursor = clients.entrySet().iterator();
+            sweeping = true;
+        }
+        for (int i = 0; i < SWEEP_CHUNK && sweepCursor.hasNext(); i++) {
+            Map.Entry<String, ClientState> entry = sweepCursor.next();
+            expireIdle(entry.getKey(), entry.getValue(), now);
+        }
+        if (!sweepCursor.hasNext()) {
+            sweepCursor = null;
+            sweeping = false;
+            nextSweepMillis = now + idleTimeoutMillis;
+        }
+    }
+
+    /**
+     * Drop a client's idle buckets, then the client if it has not been seen for idleTimeout and
+     * has no bucket left. A request racing the drop may consume from the dropped bucket, but
+     * that bucket was full, so at most the racing requests go uncounted.
+     */
+    private void expireIdle(String clientId, ClientState client, long now) {
+        expiredBuckets.add(client.dropIdleBuckets(now));
+        if (now - client.getLastAccessMillis() >= idleTimeoutMillis
+                && client.bucketCount() == 0 && clients.remove(clientId, client)) {
+            expiredClients.increment();
+        }
+    }
+
+    /**
+     * Approximate LRU without ordering the map: sample a few clients from a rotating cursor and
+     * evict the least recently seen. Up to two victims per new client, so the map returns under
+     * the cap after inserts that skipped housekeeping while another request held the lock. An
+     * evicted client starts over with full buckets, which is the price of bounding memory.
+     */
+    private void evictLeastRecentlySeen(ClientState current) {
+        for (int round = 0; round < 2 && clients.size() > maxClients; round++) {
+            String victimId = null;
+            ClientState victim = null;
+            for (int i = 0; i < EVICTION_SAMPLE; i++) {
+                if (evictionCursor == null || !evictionCursor.hasNext()) {
+                    evictionCursor = clients.entrySet().iterator();
+                    if (!evictionCursor.hasNext()) {
+                        break;
+                    }
+                }
+                Map.Entry<String, ClientState> entry = evictionCursor.next();
+                ClientState candidate = entry.getValue();
+                if (candidate != current
+                        && (victim == null || candidate.getLastAccessMillis() < victim.getLastAccessMillis())) {
+                    victimId = entry.getKey();
+                    victim = candidate;
                 }
             }
+            if (victim != null && clients.remove(victimId, victim)) {
+                lruEvictions.increment();
+            }
+        }
+    }
+
+    public int getLiveClientCount() {
+        return clients.size();
+    }
+
+    // Walks every client, so meant for metrics scrapes rather than the request path
+    public long getLiveBucketCount() {
+        long count = 0;
+        for (ClientState client : clients.values()) {
+            count += client.bucketCount();
+        }
+        return count;
+    }
+
+    public long getExpiredBucketCount() {
+        return expiredBuckets.sum();
+    }
+
+    public long getExpiredClientCount() {
+        return expiredClients.sum();
+    }
+
+    public long getLruEvictionCount() {
+        return lruEvictions.sum();
+    }
+
+    /**
+     * Turn the rules into one plan per endpoint, so a request neither scans the aggregate
+     * rules nor builds keys
+     */
+    private void compilePlans() {
+        Map<String, List<BucketSlot>> slotsByEndpoint = new HashMap<>();
+        Set<String> liveKeys = new HashSet<>();
+
+        for (EndpointRule rule : endpointRules.values()) {
+            List<BucketSlot> slots = slotsByEndpoint.computeIfAbsent(rule.getEndpoint(), e -> new ArrayList<>());
+            addSlots(slots, "ep:" + rule.getEndpoint(), rule.getPeriods(), rule.getAlgorithmType(), liveKeys);
+        }
+
+        for (AggregateRule rule : aggregateRules.values()) {
+            List<BucketSlot> groupSlots = new ArrayList<>();
+            addSlots(groupSlots, "grp:" + rule.getGroupId(), rule.getPeriods(), rule.getAlgorithmType(), liveKeys);
+            for (String endpoint : rule.getEndpoints()) {
+                slotsByEndpoint.computeIfAbsent(endpoint, e -> new ArrayList<>()).addAll(groupSlots);
+            }
+        }
+
+        Map<String, EndpointPlan> compiled = new HashMap<>();
+        slotsByEndpoint.forEach((endpoint, slots) -> {
+            int lockSlot = slotId("lock:" + endpoint, liveKeys);
+            compiled.put(endpoint, new EndpointPlan(lockSlot, slotGenerations.get(lockSlot), slots));
+        });
+        retireUnusedSlots(liveKeys);
+        slotCount = slotGenerations.size();
+        plans = Map.copyOf(compiled);
+    }
+
+    private void addSlots(List<BucketSlot> slots, String owner, List<PeriodLimit> periods, AlgorithmType type,
+                          Set<String> liveKeys) {
+        for (int i = 0; i < periods.size(); i++) {
+            PeriodLimit p = periods.get(i);
+            String key = owner + "#" + i + ":" + p.getMaxRequests() + "/" + p.getWindowMs() + ":" + type;
+            int id = slotId(key, liveKeys);
+            slots.add(new BucketSlot(id, slotGenerations.get(id), p, type));
         }
+    }
 
-        return result;
+    private int slotId(String key, Set<String> liveKeys) {
+        liveKeys.add(key);
+        return slotIds.computeIfAbsent(key, k -> {
+            Integer free = freeSlotIds.poll();
+            if (free != null) {
+                return free;
+            }
+            slotGenerations.add(0);
+            return slotGenerations.size() - 1;
+        });
+    }
+
+    /**
+     * Free the ids of keys the new plans no longer use. The generation is bumped here, so
+     * requests still running on an old plan only ever see the old generation.
+     */
+    private void retireUnusedSlots(Set<String> liveKeys) {
+        slotIds.entrySet().removeIf(entry -> {
+            if (liveKeys.contains(entry.getKey())) {
+                return false;
+            }
+            int id = entry.getValue();
+            slotGenerations.set(id, slotGenerations.get(id) + 1);
+            freeSlotIds.push(id);
+            return true;
+        });
     }
 }
@@ -0,0 +1,40 @@
+package org.lld.combinedratelimiter;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Everything an endpoint is limited by, compiled from the endpoint rule and every aggregate
+ * rule that lists it: the bucket slots to check and the slot of the per-client lock.
+ * Slots are sorted by id, so requests lock shared buckets in one global order.
+ */
+final class EndpointPlan {
+
+    private final int lockSlot;
+    private final int lockGeneration;
+    private final BucketSlot[] slots;
+    private final boolean lockFree; // Every bucket admits with CAS, so no per-client lock is taken
+
+    EndpointPlan(int lockSlot, int lockGeneration, List<BucketSlot> slots) {
+        this.lockSlot = lockSlot;
+        this.lockGeneration = lockGeneration;
+        this.slots = slots.stream().sorted(Comparator.comparingInt(BucketSlot::getId)).toArray(BucketSlot[]::new);
+        this.lockFree = slots.stream().allMatch(slot -> slot.getAlgorithmType().isLockFree());
+    }
+
+    int getLockSlot() {
+        return lockSlot;
+    }
+
+    int getLockGeneration() {
+        return lockGeneration;
+    }
+
+    BucketSlot[] getSlots() {
+        return slots;
+    }
+
+    boolean isLockFree() {
+        return lockFree;
+    }
+}
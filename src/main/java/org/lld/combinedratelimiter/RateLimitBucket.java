@@ -3,8 +3,38 @@ package org.lld.combinedratelimiter;
 
 public interface RateLimitBucket {
 
+    // Returned by tryAcquire when the bucket refuses
+    long REFUSED = Long.MIN_VALUE;
+
     boolean wouldAllow(long nowMillis);
 
 
     void consume(long nowMillis);
+
+
+    // Check and consume as one atomic step, returning the reservation to pass to release, or REFUSED.
+    // Buckets guarding their state with their own monitor get this for free; their reservation is the time taken.
+    default long tryAcquire(long nowMillis) {
+        synchronized (this) {
+            if (!wouldAllow(nowMillis)) {
+                return REFUSED;
+            }
+            consume(nowMillis);
+            return nowMillis;
+        }
+    }
+
+
+    // Give back a reservation from tryAcquire, when another bucket of the same request refused it
+    void release(long nowMillis, long reservation);
+
+
+    // Whether the bucket is back where a new one starts, so dropping it and creating it again changes nothing
+    boolean isIdle(long nowMillis);
+
+
+    // Whether tryAcquire and release never block, so requests need no lock around them
+    default boolean isLockFree() {
+        return false;
+    }
 }
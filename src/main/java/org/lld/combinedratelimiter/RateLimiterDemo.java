@@ -1,7 +1,17 @@
 package org.lld.combinedratelimiter;
 
+import org.lld.combinedratelimiter.algorithms.SlidingWindowBucket;
+import org.lld.combinedratelimiter.algorithms.SubWindowRingBucket;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 
 public class RateLimiterDemo {
 
@@ -50,5 +60,254 @@ public class RateLimiterDemo {
         System.out.println("  30 uploads: " + uploadAllowed + " allowed");
         System.out.println("  30 downloads (after uploads): " + downloadAllowed + " allowed");
         System.out.println("  Total storage-io: " + (uploadAllowed + downloadAllowed) + " (expect <= 50)");
+
+        System.out.println("\n=== Many rules: 400 aggregate groups ===");
+        CombinedRateLimiter large = new CombinedRateLimiter();
+        for (int g = 0; g < 400; g++) {
+            large.addAggregateRule(new AggregateRule("group-" + g,
+                    Set.of("/api/" + g, "/api/" + (g + 1)),
+                    List.of(PeriodLimit.perMinute(1_000_000), PeriodLimit.perDay(10_000_000)),
+                    AlgorithmType.TOKEN_BUCKET));
+        }
+        String[] clients = new String[64];
+        for (int c = 0; c < clients.length; c++) {
+            clients[c] = "client-" + c;
+        }
+        String[] endpoints = new String[400];
+        for (int e = 0; e < endpoints.length; e++) {
+            endpoints[e] = "/api/" + e;
+        }
+        int requests = 2_000_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            large.allowRequest(clients[i % clients.length], endpoints[i % endpoints.length]);
+        }
+        System.out.printf("  %,d requests: %.0f ns/request (compiled plans, no rule scan)%n",
+                requests, (double) (System.nanoTime() - start) / requests);
+
+        System.out.println("\n=== Hot client: 64 threads on one client ===");
+        for (AlgorithmType type : List.of(AlgorithmType.TOKEN_BUCKET, AlgorithmType.ATOMIC_TOKEN_BUCKET)) {
+            hammer(type);
+        }
+
+        System.out.println("\n=== Shared group: 64 threads on /upload + /download (one client) ===");
+        for (AdmissionMode mode : AdmissionMode.values()) {
+            contend(mode);
+        }
+
+        System.out.println("\n=== Lock-free rollback: 64 threads, /x limit refused by its group ===");
+        checkRollback();
+
+        System.out.println("\n=== Sliding window accuracy: 1,000/min over a bursty hour ===");
+        compareSlidingWindows();
+
+        System.out.println("\n=== Client state: 50,000 anonymous clients, cap 10,000, idle after 100 ms ===");
+        CombinedRateLimiter bounded = new CombinedRateLimiter(AdmissionMode.ORDERED_LOCKS, 10_000, Duration.ofMillis(100));
+        bounded.addEndpointRule(new EndpointRule("/feed",
+                List.of(new PeriodLimit(10, 100)), AlgorithmType.TOKEN_BUCKET));
+        for (int ip = 0; ip < 50_000; ip++) {
+            bounded.allowRequest("10.0." + (ip >> 8) + "." + (ip & 0xff), "/feed");
+        }
+        printClientState(bounded);
+        Thread.sleep(250); // Every bucket refills, then later requests sweep them away a chunk at a time
+        long sweepStart = System.nanoTime();
+        long slowest = 0;
+        for (int i = 0; i < 1_000; i++) {
+            long before = System.nanoTime();
+            bounded.allowRequest("10.1.0.1", "/feed");
+            slowest = Math.max(slowest, System.nanoTime() - before);
+        }
+        printClientState(bounded);
+        System.out.printf("  1,000 requests during the sweep: %.1f us average, %.1f us slowest%n",
+                (System.nanoTime() - sweepStart) / 1e3 / 1_000, slowest / 1e3);
+    }
+
+    private static void printClientState(CombinedRateLimiter limiter) {
+        System.out.printf("  live clients %,d, live buckets %,d, LRU evictions %,d, expired buckets %,d, expired clients %,d%n",
+                limiter.getLiveClientCount(), limiter.getLiveBucketCount(), limiter.getLruEvictionCount(),
+                limiter.getExpiredBucketCount(), limiter.getExpiredClientCount());
+    }
+
+    // Replay one trace through the exact log and both approximations, on simulated time
+    private static void compareSlidingWindows() {
+        PeriodLimit limit = PeriodLimit.perMinute(1_000);
+        // The next window boundary: the approximations align their windows to the epoch, so a
+        // trace starting on a boundary replays identically on every run. Buckets count from their
+        // creation time, so the trace may not start in the past.
+        long origin = (System.currentTimeMillis() / limit.getWindowMs() + 1) * limit.getWindowMs();
+        Random random = new Random(42);
+        List<Long> trace = new ArrayList<>();
+        for (long t = 0; t < 3_600_000L; t += 10) {
+            // Quiet and busy minutes alternate, with the busy ones near twice the limit
+            boolean busy = (t / 60_000L) % 3 != 0;
+            if (random.nextInt(busy ? 3 : 12) == 0) {
+                trace.add(origin + t);
+            }
+        }
+
+        BucketFactory factory = new BucketFactory();
+        SlidingWindowBucket exact = new SlidingWindowBucket(limit);
+        boolean[] expected = new boolean[trace.size()];
+        int peakHeld = 0;
+        ArrayDeque<Long> window = new ArrayDeque<>();
+        for (int i = 0; i < trace.size(); i++) {
+            long now = trace.get(i);
+            while (!window.isEmpty() && window.peekFirst() < now - limit.getWindowMs()) window.removeFirst();
+            expected[i] = exact.tryAcquire(now) != RateLimitBucket.REFUSED;
+            if (expected[i]) window.addLast(now);
+            peakHeld = Math.max(peakHeld, window.size());
+        }
+        System.out.printf("  %-22s %,d requests, %,d admitted, up to %,d timestamps held (~%,d bytes)%n",
+                AlgorithmType.SLIDING_WINDOW, trace.size(), count(expected), peakHeld, peakHeld * 20);
+
+        for (AlgorithmType type : List.of(AlgorithmType.SLIDING_WINDOW_COUNTER, AlgorithmType.SLIDING_WINDOW_RING)) {
+            RateLimitBucket bucket = factory.create(limit, type);
+            boolean[] decisions = new boolean[trace.size()];
+            int agree = 0;
+            int worstWindow = 0;
+            window.clear();
+            for (int i = 0; i < trace.size(); i++) {
+                long now = trace.get(i);
+                decisions[i] = bucket.tryAcquire(now) != RateLimitBucket.REFUSED;
+                if (decisions[i] == expected[i]) agree++;
+                while (!window.isEmpty() && window.peekFirst() < now - limit.getWindowMs()) window.removeFirst();
+                if (decisions[i]) window.addLast(now);
+                worstWindow = Math.max(worstWindow, window.size());
+            }
+            int bytes = type == AlgorithmType.SLIDING_WINDOW_COUNTER ? 16 : SubWindowRingBucket.SUB_WINDOWS * 4 + 28;
+            System.out.printf("  %-22s %,d admitted, %.2f%% same decisions, busiest real minute %,d, ~%d bytes%n",
+                    type, count(decisions), 100.0 * agree / trace.size(), worstWindow, bytes);
+        }
+    }
+
+    private static int count(boolean[] decisions) {
+        int admitted = 0;
+        for (boolean decision : decisions) {
+            if (decision) admitted++;
+        }
+        return admitted;
+    }
+
+    // Half the threads hit /upload, half /download; only the storage-io group bucket (1,000/hour, so
+    // refill is negligible) is shared. Each round starts from a fresh limiter, so every round races
+    // at the moment the group bucket runs out
+    private static void contend(AdmissionMode mode) throws InterruptedException {
+        int rounds = 200;
+        int threads = 64;
+        int perThread = 100;
+        int limit = 1_000;
+        long excess = 0;
+        int worst = 0;
+        long elapsed = 0;
+        for (int round = 0; round < rounds; round++) {
+            CombinedRateLimiter limiter = new CombinedRateLimiter(mode);
+            limiter.addEndpointRule(new EndpointRule("/upload",
+                    List.of(PeriodLimit.perMinute(10_000_000)), AlgorithmType.TOKEN_BUCKET));
+            limiter.addEndpointRule(new EndpointRule("/download",
+                    List.of(PeriodLimit.perMinute(10_000_000)), AlgorithmType.TOKEN_BUCKET));
+            limiter.addAggregateRule(new AggregateRule("storage-io",
+                    Set.of("/upload", "/download"),
+                    List.of(PeriodLimit.perHour(limit)),
+                    AlgorithmType.TOKEN_BUCKET));
+            AtomicInteger admitted = new AtomicInteger();
+            elapsed += run(threads, t -> {
+                String endpoint = t % 2 == 0 ? "/upload" : "/download";
+                int local = 0;
+                for (int i = 0; i < perThread; i++) {
+                    if (limiter.allowRequest("io-client", endpoint)) local++;
+                }
+                admitted.addAndGet(local);
+            });
+            int over = Math.max(0, admitted.get() - limit);
+            excess += over;
+            worst = Math.max(worst, over);
+        }
+        long requests = (long) rounds * threads * perThread;
+        System.out.printf("  %-16s %,d requests in %,d ms (%.1f M/s), %,d admitted over the limit in %d rounds (worst %d)%n",
+                mode, requests, elapsed / 1_000_000, requests * 1e3 / elapsed, excess, rounds, worst);
+    }
+
+    // /x takes its own bucket (2,000 per 100 ms) before the group bucket it shares with /y (3,000 per
+    // 100 ms), so whenever the group refuses, /x rolls back a permit that may have drained meanwhile
+    private static void checkRollback() throws InterruptedException {
+        PeriodLimit own = new PeriodLimit(2_000, 100);
+        PeriodLimit shared = new PeriodLimit(3_000, 100);
+        CombinedRateLimiter limiter = new CombinedRateLimiter(AdmissionMode.RESERVE_ROLLBACK);
+        limiter.addEndpointRule(new EndpointRule("/x", List.of(own), AlgorithmType.ATOMIC_TOKEN_BUCKET));
+        limiter.addAggregateRule(new AggregateRule("xy", Set.of("/x", "/y"),
+                List.of(shared), AlgorithmType.ATOMIC_TOKEN_BUCKET));
+        AtomicInteger admittedX = new AtomicInteger();
+        AtomicInteger admittedY = new AtomicInteger();
+        long elapsed = run(64, t -> {
+            String endpoint = t % 2 == 0 ? "/x" : "/y";
+            AtomicInteger admitted = t % 2 == 0 ? admittedX : admittedY;
+            for (int i = 0; i < 20_000; i++) {
+                if (limiter.allowRequest("client", endpoint)) admitted.incrementAndGet();
+            }
+        });
+        // A token bucket admits its capacity plus whatever refilled while the threads ran
+        double elapsedMs = elapsed / 1e6 + 1;
+        long ownBound = (long) (own.getMaxRequests() * (1 + elapsedMs / own.getWindowMs()));
+        long sharedBound = (long) (shared.getMaxRequests() * (1 + elapsedMs / shared.getWindowMs()));
+        int x = admittedX.get();
+        int both = x + admittedY.get();
+        System.out.printf("  /x admitted %,d (bound %,d), /x + /y admitted %,d (bound %,d): %s%n",
+                x, ownBound, both, sharedBound, x <= ownBound && both <= sharedBound ? "OK" : "OVER-ADMITTED");
+
+        // The preempted case on a simulated clock: a permit is rolled back only after it has drained
+        // and another request has restarted the bucket, so the rollback must give nothing back
+        RateLimitBucket bucket = new BucketFactory().create(PeriodLimit.perMinute(60), AlgorithmType.ATOMIC_TOKEN_BUCKET);
+        long now = System.currentTimeMillis();
+        long stale = bucket.tryAcquire(now);
+        int admitted = bucket.tryAcquire(now + 5_000) != RateLimitBucket.REFUSED ? 1 : 0;
+        bucket.release(now + 5_000, stale);
+        while (bucket.tryAcquire(now + 5_000) != RateLimitBucket.REFUSED) admitted++;
+        System.out.printf("  stale rollback: %d admitted at one instant (capacity 60): %s%n",
+                admitted, admitted <= 60 ? "OK" : "OVER-ADMITTED");
+    }
+
+    // Start the threads together and return the nanos until the last one finishes
+    private static long run(int threads, IntConsumer body) throws InterruptedException {
+        CountDownLatch go = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                body.accept(index);
+            });
+            workers[t].start();
+        }
+        long start = System.nanoTime();
+        go.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - start;
+    }
+
+    // 64 threads share one client on /hot (500k/min AND 1M/day), so every request hits the same buckets
+    private static void hammer(AlgorithmType type) throws InterruptedException {
+        CombinedRateLimiter limiter = new CombinedRateLimiter();
+        limiter.addEndpointRule(new EndpointRule("/hot",
+                List.of(PeriodLimit.perMinute(500_000), PeriodLimit.perDay(1_000_000)), type));
+        int threads = 64;
+        int perThread = 50_000;
+        AtomicInteger admitted = new AtomicInteger();
+        long elapsed = run(threads, t -> {
+            int local = 0;
+            for (int i = 0; i < perThread; i++) {
+                if (limiter.allowRequest("hot-client", "/hot")) local++;
+            }
+            admitted.addAndGet(local);
+        });
+        System.out.printf("  %-19s %,d requests in %,d ms (%.1f M/s), %,d admitted (expect <= 500,000 + refill)%n",
+                type, threads * perThread, elapsed / 1_000_000,
+                threads * perThread * 1e3 / elapsed, admitted.get());
     }
 }
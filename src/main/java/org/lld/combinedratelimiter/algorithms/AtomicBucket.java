@@ -0,0 +1,109 @@
+package org.lld.combinedratelimiter.algorithms;
+
+import org.lld.combinedratelimiter.PeriodLimit;
+import org.lld.combinedratelimiter.RateLimitBucket;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free bucket whose whole state is one AtomicLong, updated with a CAS loop.
+ * <p>
+ * Rather than a token count plus a last-refill time, the long holds the time at which the
+ * bucket will have drained every admitted request (the theoretical arrival time of the
+ * generic cell rate algorithm), in fixed point with 2^20 ticks per millisecond. Each
+ * request pushes it one emission interval (window / maxRequests) into the future, and the
+ * backlog still queued at time t is max(state, t) - t, so the tokens left are
+ * (capacity - backlog) / interval. This is the same bucket with continuous refill, but
+ * the count and the timestamp can never be read or written apart, and no precision has to
+ * be split between two packed fields.
+ */
+abstract class AtomicBucket implements RateLimitBucket {
+
+    private static final int TICK_SHIFT = 20; // 2^20 ticks per millisecond
+
+    protected final long intervalTicks;
+    protected final long capacityTicks; // Backlog of a bucket holding maxRequests requests
+    private final long originMillis;
+    private final AtomicLong drainedAtTicks = new AtomicLong(Long.MIN_VALUE / 2); // Starts drained
+
+    AtomicBucket(PeriodLimit period) {
+        this.intervalTicks = Math.max(1L,
+                Math.round((double) (period.getWindowMs() << TICK_SHIFT) / period.getMaxRequests()));
+        this.capacityTicks = intervalTicks * period.getMaxRequests();
+        this.originMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Whether one more request fits on top of the given backlog
+     */
+    protected abstract boolean admits(long backlogTicks);
+
+    @Override
+    public boolean wouldAllow(long nowMillis) {
+        long now = ticks(nowMillis);
+        return admits(Math.max(drainedAtTicks.get(), now) - now);
+    }
+
+    @Override
+    public void consume(long nowMillis) {
+        tryAcquire(nowMillis);
+    }
+
+    /**
+     * The reservation is the drain time this request moved the state to, so release knows how
+     * much of its interval is still queued
+     */
+    @Override
+    public long tryAcquire(long nowMillis) {
+        long now = ticks(nowMillis);
+        while (true) {
+            long drainedAt = drainedAtTicks.get();
+            long start = Math.max(drainedAt, now);
+            if (!admits(start - now)) {
+                return REFUSED;
+            }
+            long reservedUntil = start + intervalTicks;
+            if (drainedAtTicks.compareAndSet(drainedAt, reservedUntil)) {
+                return reservedUntil;
+            }
+        }
+    }
+
+    /**
+     * Give back only the part of the reservation not yet drained at nowMillis, and never move
+     * the state into the past. Once a reservation has fully drained, a later request may have
+     * restarted the bucket from its own time, and taking a whole interval off would cancel
+     * that request's permit instead.
+     */
+    @Override
+    public void release(long nowMillis, long reservation) {
+        long now = ticks(nowMillis);
+        long undrained = Math.min(intervalTicks, reservation - now);
+        if (undrained <= 0) {
+            return;
+        }
+        while (true) {
+            long drainedAt = drainedAtTicks.get();
+            if (drainedAt <= now) {
+                return;
+            }
+            if (drainedAtTicks.compareAndSet(drainedAt, Math.max(drainedAt - undrained, now))) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public boolean isIdle(long nowMillis) {
+        return drainedAtTicks.get() <= ticks(nowMillis);
+    }
+
+    @Override
+    public boolean isLockFree() {
+        return true;
+    }
+
+    private long ticks(long nowMillis) {
+        return (nowMillis - originMillis) << TICK_SHIFT;
+    }
+}
@@ -0,0 +1,19 @@
+package org.lld.combinedratelimiter.algorithms;
+
+import org.lld.combinedratelimiter.PeriodLimit;
+
+
+/**
+ * Lock-free {@link LeakyBucketBucket}: admits while the level is below maxRequests
+ */
+public final class AtomicLeakyBucket extends AtomicBucket {
+
+    public AtomicLeakyBucket(PeriodLimit period) {
+        super(period);
+    }
+
+    @Override
+    protected boolean admits(long backlogTicks) {
+        return backlogTicks < capacityTicks;
+    }
+}
@@ -0,0 +1,19 @@
+package org.lld.combinedratelimiter.algorithms;
+
+import org.lld.combinedratelimiter.PeriodLimit;
+
+
+/**
+ * Lock-free {@link TokenBucketBucket}: admits while at least one whole token is left
+ */
+public final class AtomicTokenBucket extends AtomicBucket {
+
+    public AtomicTokenBucket(PeriodLimit period) {
+        super(period);
+    }
+
+    @Override
+    protected boolean admits(long backlogTicks) {
+        return backlogTicks + intervalTicks <= capacityTicks;
+    }
+}
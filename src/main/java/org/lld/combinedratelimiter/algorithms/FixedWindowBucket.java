@@ -31,6 +31,20 @@ public final class FixedWindowBucket implements RateLimitBucket {
         }
     }
 
+    @Override
+    public synchronized void release(long nowMillis, long reservation) {
+        // A request from before the window rolled over is no longer counted
+        if (reservation >= windowStartMillis && count > 0) {
+            count--;
+        }
+    }
+
+    @Override
+    public synchronized boolean isIdle(long nowMillis) {
+        windowIfNeeded(nowMillis);
+        return count == 0;
+    }
+
     private void windowIfNeeded(long nowMillis) {
         long elapsed = nowMillis - windowStartMillis;
         if (elapsed >= windowMs) {
@@ -32,6 +32,17 @@ public final class LeakyBucketBucket implements RateLimitBucket {
         }
     }
 
+    @Override
+    public synchronized void release(long nowMillis, long reservation) {
+        currentLevel = Math.max(0.0, currentLevel - 1.0);
+    }
+
+    @Override
+    public synchronized boolean isIdle(long nowMillis) {
+        leak(nowMillis);
+        return currentLevel == 0.0;
+    }
+
     private void leak(long nowMillis) {
         if (nowMillis <= lastUpdateMillis) return;
         long delta = nowMillis - lastUpdateMillis;
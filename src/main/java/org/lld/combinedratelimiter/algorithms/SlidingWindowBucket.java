@@ -32,6 +32,17 @@ public final class SlidingWindowBucket implements RateLimitBucket {
         }
     }
 
+    @Override
+    public synchronized void release(long nowMillis, long reservation) {
+        timestamps.removeLastOccurrence(reservation);
+    }
+
+    @Override
+    public synchronized boolean isIdle(long nowMillis) {
+        evictExpired(nowMillis);
+        return timestamps.isEmpty();
+    }
+
     private void evictExpired(long nowMillis) {
         long threshold = nowMillis - windowMs;
         while (!timestamps.isEmpty() && timestamps.peekFirst() < threshold) {
@@ -0,0 +1,68 @@
+package org.lld.combinedratelimiter.algorithms;
+
+import org.lld.combinedratelimiter.PeriodLimit;
+import org.lld.combinedratelimiter.RateLimitBucket;
+
+
+/**
+ * Approximates {@link SlidingWindowBucket} with two counters: the current fixed window and the
+ * previous one, weighted by how much of it still overlaps the sliding window. Constant memory,
+ * exact when requests are spread evenly over the previous window.
+ */
+public final class SlidingWindowCounterBucket implements RateLimitBucket {
+
+    private final int maxRequests;
+    private final long windowMs;
+    private long windowIndex; // nowMillis / windowMs of the current window
+    private int currentCount;
+    private int previousCount;
+
+    public SlidingWindowCounterBucket(PeriodLimit period) {
+        this.maxRequests = period.getMaxRequests();
+        this.windowMs = period.getWindowMs();
+        this.windowIndex = System.currentTimeMillis() / windowMs;
+    }
+
+    @Override
+    public synchronized boolean wouldAllow(long nowMillis) {
+        advance(nowMillis);
+        return estimate(nowMillis) + 1.0 <= maxRequests;
+    }
+
+    @Override
+    public synchronized void consume(long nowMillis) {
+        advance(nowMillis);
+        if (estimate(nowMillis) + 1.0 <= maxRequests) {
+            currentCount++;
+        }
+    }
+
+    @Override
+    public synchronized void release(long nowMillis, long reservation) {
+        long index = reservation / windowMs;
+        if (index == windowIndex && currentCount > 0) {
+            currentCount--;
+        } else if (index == windowIndex - 1 && previousCount > 0) {
+            previousCount--;
+        }
+    }
+
+    @Override
+    public synchronized boolean isIdle(long nowMillis) {
+        advance(nowMillis);
+        return currentCount == 0 && previousCount == 0;
+    }
+
+    private double estimate(long nowMillis) {
+        double previousWeight = 1.0 - (double) (nowMillis - windowIndex * windowMs) / windowMs;
+        return previousCount * previousWeight + currentCount;
+    }
+
+    private void advance(long nowMillis) {
+        long index = nowMillis / windowMs;
+        if (index <= windowIndex) return;
+        previousCount = index == windowIndex + 1 ? currentCount : 0;
+        currentCount = 0;
+        windowIndex = index;
+    }
+}
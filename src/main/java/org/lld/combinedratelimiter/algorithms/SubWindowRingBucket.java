@@ -0,0 +1,82 @@
+package org.lld.combinedratelimiter.algorithms;
+
+import org.lld.combinedratelimiter.PeriodLimit;
+import org.lld.combinedratelimiter.RateLimitBucket;
+
+
+/**
+ * Approximates {@link SlidingWindowBucket} with a ring of per-sub-window counts. The window
+ * slides one sub-window at a time, so it may admit up to one sub-window's worth of requests
+ * too early, but memory is fixed at SUB_WINDOWS counts however high the limit. Sub-windows
+ * are counted in units of windowMs / subWindows without rounding, so a window that is not a
+ * multiple of SUB_WINDOWS milliseconds still spans exactly windowMs.
+ */
+public final class SubWindowRingBucket implements RateLimitBucket {
+
+    public static final int SUB_WINDOWS = 20;
+
+    private final int maxRequests;
+    private final long windowMs;
+    private final int[] counts;
+    private long headIndex; // Sub-window index of the newest sub-window
+    private int total;
+
+    public SubWindowRingBucket(PeriodLimit period) {
+        this.maxRequests = period.getMaxRequests();
+        this.windowMs = period.getWindowMs();
+        this.counts = new int[(int) Math.min(SUB_WINDOWS, windowMs)];
+        this.headIndex = subWindowIndex(System.currentTimeMillis());
+    }
+
+    @Override
+    public synchronized boolean wouldAllow(long nowMillis) {
+        advance(nowMillis);
+        return total < maxRequests;
+    }
+
+    @Override
+    public synchronized void consume(long nowMillis) {
+        advance(nowMillis);
+        if (total < maxRequests) {
+            counts[slot(headIndex)]++;
+            total++;
+        }
+    }
+
+    @Override
+    public synchronized void release(long nowMillis, long reservation) {
+        long index = subWindowIndex(reservation);
+        // Only while the sub-window it was counted in is still in the ring
+        if (index <= headIndex && index > headIndex - counts.length && counts[slot(index)] > 0) {
+            counts[slot(index)]--;
+            total--;
+        }
+    }
+
+    @Override
+    public synchronized boolean isIdle(long nowMillis) {
+        advance(nowMillis);
+        return total == 0;
+    }
+
+    private void advance(long nowMillis) {
+        long index = subWindowIndex(nowMillis);
+        if (index <= headIndex) return;
+        long expired = Math.min(index - headIndex, counts.length);
+        for (long i = 1; i <= expired; i++) {
+            int slot = slot(headIndex + i);
+            total -= counts[slot];
+            counts[slot] = 0;
+        }
+        headIndex = index;
+    }
+
+    // Sub-window k covers [k * windowMs / subWindows, (k + 1) * windowMs / subWindows)
+    private long subWindowIndex(long nowMillis) {
+        return Math.floorDiv(nowMillis * counts.length, windowMs);
+    }
+
+    private int slot(long index) {
+        return (int) (index % counts.length);
+    }
+}
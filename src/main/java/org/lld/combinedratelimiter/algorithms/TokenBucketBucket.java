@@ -32,6 +32,17 @@ public final class TokenBucketBucket implements RateLimitBucket {
         }
     }
 
+    @Override
+    public synchronized void release(long nowMillis, long reservation) {
+        tokens = Math.min(maxRequests, tokens + 1.0);
+    }
+
+    @Override
+    public synchronized boolean isIdle(long nowMillis) {
+        refill(nowMillis);
+        return tokens >= maxRequests;
+    }
+
     private void refill(long nowMillis) {
         if (nowMillis <= lastRefillMillis) return;
         long delta = nowMillis - lastRefillMillis;